@@ -53,15 +53,19 @@ public final class ClausewitzUtils {
         if (DATE_PATTERN.matcher(s).matches()) {
             return LocalDate.parse(s, DATE_FORMAT);
         } else {
-            long dateLong = Long.parseLong(s);
-            dateLong /= 24;
-
-            int year = (int) ((dateLong / 365) - 5000);
-            LocalDate date = LocalDate.of(year, 1, 1);
-            return date.withDayOfYear((int) (dateLong % 365 + 1));
+            return hoursToDate(Long.parseLong(s));
         }
     }
 
+    //Dates of binary files are a number of hours since the year -5000, without leap years
+    public static LocalDate hoursToDate(long dateLong) {
+        dateLong /= 24;
+
+        int year = (int) ((dateLong / 365) - 5000);
+        LocalDate date = LocalDate.of(year, 1, 1);
+        return date.withDayOfYear((int) (dateLong % 365 + 1));
+    }
+
     public static boolean hasQuotes(String s) {
         return s != null && ('"' == s.charAt(0) && '"' == s.charAt(s.length() - 1));
     }
@@ -10,7 +10,14 @@ package fr.osallek.clausewitzparser.ic4j;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,6 +29,123 @@ public class CharsetDetector {
         return Charset.forName(new CharsetDetector(in).detect().getName());
     }
 
+    public static Charset detect(ByteBuffer bytes) {
+        byte[] input = new byte[Math.min(K_BUF_SIZE, bytes.remaining())];
+        bytes.get(bytes.position(), input);
+
+        CharsetMatch match = new CharsetDetector().setText(input).detect();
+
+        if (match == null) {
+            return null;
+        }
+
+        try {
+            return Charset.forName(match.getName());
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Returns the first candidate able to decode the bytes, or the detected charset if none can.
+     */
+    public static Charset resolve(ByteBuffer bytes, Charset... candidates) {
+        for (Charset candidate : candidates) {
+            if (candidate != null && canDecode(bytes, candidate)) {
+                return candidate;
+            }
+        }
+
+        return detect(bytes);
+    }
+
+    public static boolean canDecode(ByteBuffer bytes, Charset charset) {
+        if (StandardCharsets.ISO_8859_1.equals(charset)) {
+            return true; //Every byte is a valid char
+        }
+
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return isUtf8(bytes);
+        }
+
+        CharsetDecoder decoder = charset.newDecoder();
+        ByteBuffer in = bytes.duplicate();
+        CharBuffer out = CharBuffer.allocate(K_BUF_SIZE);
+
+        while (true) {
+            CoderResult result = decoder.decode(in, out, true);
+
+            if (result.isError()) {
+                return false;
+            }
+
+            if (result.isOverflow()) {
+                out.clear();
+                continue;
+            }
+
+            out.clear();
+            return !decoder.flush(out).isError();
+        }
+    }
+
+    public static boolean isUtf8(ByteBuffer bytes) {
+        int i = bytes.position();
+        int limit = bytes.limit();
+
+        while (i < limit) {
+            if (i + 8 <= limit && (bytes.getLong(i) & 0x8080808080808080L) == 0) { //8 ASCII bytes at once
+                i += 8;
+                continue;
+            }
+
+            int b = bytes.get(i) & 0xFF;
+
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+
+            int trailBytes;
+            int min = 0x80;
+            int max = 0xBF;
+
+            if (b >= 0xC2 && b <= 0xDF) {
+                trailBytes = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                trailBytes = 2;
+                min = b == 0xE0 ? 0xA0 : 0x80; //Overlong
+                max = b == 0xED ? 0x9F : 0xBF; //Surrogates
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                trailBytes = 3;
+                min = b == 0xF0 ? 0x90 : 0x80; //Overlong
+                max = b == 0xF4 ? 0x8F : 0xBF; //Above U+10FFFF
+            } else {
+                return false;
+            }
+
+            if (i + trailBytes >= limit) {
+                return false;
+            }
+
+            int second = bytes.get(i + 1) & 0xFF;
+
+            if (second < min || second > max) {
+                return false;
+            }
+
+            for (int j = 2; j <= trailBytes; j++) {
+                if ((bytes.get(i + j) & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+
+            i += trailBytes + 1;
+        }
+
+        return true;
+    }
+
     public CharsetDetector() {
     }
 
@@ -31,6 +155,14 @@ public class CharsetDetector {
 
     private static final int K_BUF_SIZE = 8000;
 
+    public CharsetDetector setText(byte[] in) {
+        this.fInputStream = null;
+        this.fRawInput = in;
+        this.fRawLength = in.length;
+
+        return this;
+    }
+
     public CharsetDetector setText(InputStream in) throws IOException {
         this.fInputStream = in;
         this.fInputStream.mark(K_BUF_SIZE);
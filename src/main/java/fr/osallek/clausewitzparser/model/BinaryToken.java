@@ -16,20 +16,32 @@ public enum BinaryToken {
 
     public final short token;
 
-    private static final BinaryToken[] VALUES = BinaryToken.values();
+    private static final BinaryToken[] BY_TOKEN; //Indexed by token, the largest one is small enough
+
+    static {
+        int max = 0;
+
+        for (BinaryToken value : values()) {
+            max = Math.max(max, value.token);
+        }
+
+        BY_TOKEN = new BinaryToken[max + 1];
+
+        for (BinaryToken value : values()) {
+            BY_TOKEN[value.token] = value;
+        }
+    }
 
     BinaryToken(short token) {
         this.token = token;
     }
 
     public static BinaryToken ofToken(short token) {
-        for (BinaryToken value : VALUES) {
-            if (value.token == token) {
-                return value;
-            }
-        }
+        return ofToken(token & 0xFFFF);
+    }
 
-        return null;
+    public static BinaryToken ofToken(int token) {
+        return token >= 0 && token < BY_TOKEN.length ? BY_TOKEN[token] : null;
     }
 
     public short getToken() {
@@ -8,6 +8,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -24,6 +25,8 @@ public final class ClausewitzItem extends ClausewitzPObject {
 
     public static final String DEFAULT_NAME = "clausewitzparser";
 
+    private static final int TREE_THRESHOLD = 64; //Objects shifted by an insertion before the objects move to an OrderTree
+
     private List<ClausewitzItem> children;
 
     private Map<String, List<ClausewitzItem>> childrenMap;
@@ -36,6 +39,11 @@ public final class ClausewitzItem extends ClausewitzPObject {
 
     private Map<String, List<ClausewitzList>> listsMap;
 
+    //Children, variables and lists sorted by order, then children before variables before lists, like they are written
+    private List<ClausewitzObject> objects;
+
+    private Map<String, List<ClausewitzObject>> objectsMap;
+
     private boolean sameLine = false;
 
     private final boolean hasEquals;
@@ -65,6 +73,10 @@ public final class ClausewitzItem extends ClausewitzPObject {
         this.sameLine = sameLine;
     }
 
+    public boolean isHasEquals() {
+        return hasEquals;
+    }
+
     private List<ClausewitzItem> getInternalChildren() {
         if (this.children == null) {
             this.children = new ArrayList<>(1);
@@ -109,14 +121,17 @@ public final class ClausewitzItem extends ClausewitzPObject {
             throw new NullPointerException("Can't add a null child");
         }
 
+        detach(child);
+
         if (increaseOrders) {
-            getAllOrdered().stream().filter(co -> co.order >= child.order).forEach(co -> co.order++);
+            increaseOrders(child.order, null);
         } else {
             child.order = getNbObjects();
         }
 
         getInternalChildren().add(child);
         this.childrenMap.computeIfAbsent(child.getName(), k -> new ArrayList<>(1)).add(child);
+        index(child);
     }
 
     public ClausewitzItem addChild(String name) {
@@ -130,6 +145,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     public boolean removeChild(int id) {
         if (this.children != null) {
             ClausewitzItem child = this.children.remove(id);
+            unindex(child);
 
             if (child != null) {
                 List<ClausewitzItem> childrenList = this.childrenMap.get(child.getName());
@@ -150,7 +166,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
 
     public boolean removeChild(ClausewitzItem child) {
         if (this.children != null) {
-            boolean removed = this.children.remove(child);
+            boolean removed = remove(this.children, child);
 
             if (removed) {
                 List<ClausewitzItem> childrenList = this.childrenMap.get(child.getName());
@@ -174,7 +190,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzItem> items = this.childrenMap.get(childName);
 
             if (items != null && items.size() > id) {
-                boolean removed = this.children.remove(items.remove(id));
+                boolean removed = remove(this.children, items.remove(id));
 
                 if (removed && items.isEmpty()) {
                     this.childrenMap.remove(childName);
@@ -192,7 +208,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzItem> items = this.childrenMap.get(childName);
 
             if (items != null) {
-                boolean removed = this.children.remove(items.removeFirst());
+                boolean removed = remove(this.children, items.removeFirst());
 
                 if (removed && items.isEmpty()) {
                     this.childrenMap.remove(childName);
@@ -210,7 +226,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzItem> items = this.childrenMap.get(childName);
 
             if (items != null) {
-                boolean removed = this.children.remove(items.removeLast());
+                boolean removed = remove(this.children, items.removeLast());
 
                 if (removed && items.isEmpty()) {
                     this.childrenMap.remove(childName);
@@ -228,7 +244,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzItem> items = this.childrenMap.remove(childName);
 
             if (items != null) {
-                return this.children.removeAll(items);
+                return removeAll(this.children, items);
             }
         }
 
@@ -238,6 +254,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     public void removeAllChildren() {
         if (this.children != null) {
             this.children.clear();
+            unindexAll(ClausewitzItem.class);
             this.childrenMap.clear();
         }
     }
@@ -280,14 +297,17 @@ public final class ClausewitzItem extends ClausewitzPObject {
             throw new NullPointerException("Can't add a null variable");
         }
 
+        detach(variable);
+
         if (increaseOrders) {
-            getAllOrdered().stream().filter(co -> co.order >= variable.order).forEach(co -> co.order++);
+            increaseOrders(variable.order, null);
         } else {
             variable.order = getNbObjects();
         }
 
         getInternalVariables().add(variable);
         this.variablesMap.computeIfAbsent(variable.getName(), k -> new ArrayList<>(1)).add(variable);
+        index(variable);
     }
 
     public boolean removeVariableIf(Predicate<ClausewitzVariable> filter) {
@@ -586,6 +606,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     public boolean removeVariable(int id) {
         if (this.variables != null) {
             ClausewitzVariable variable = this.variables.remove(id);
+            unindex(variable);
 
             if (variable != null) {
                 List<ClausewitzVariable> variablesList = this.variablesMap.get(variable.getName());
@@ -606,7 +627,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
 
     public boolean removeVariable(ClausewitzVariable variable) {
         if (this.variables != null) {
-            boolean removed = this.variables.remove(variable);
+            boolean removed = remove(this.variables, variable);
 
             if (removed) {
                 List<ClausewitzVariable> variablesList = this.variablesMap.get(variable.getName());
@@ -630,7 +651,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzVariable> items = this.variablesMap.get(variable);
 
             if (items != null && items.size() > id) {
-                boolean removed = this.variables.remove(items.remove(id));
+                boolean removed = remove(this.variables, items.remove(id));
 
                 if (removed && items.isEmpty()) {
                     this.variablesMap.remove(variable);
@@ -648,7 +669,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzVariable> items = this.variablesMap.get(childName);
 
             if (items != null) {
-                boolean removed = this.variables.remove(items.removeFirst());
+                boolean removed = remove(this.variables, items.removeFirst());
 
                 if (removed && items.isEmpty()) {
                     this.variablesMap.remove(childName);
@@ -666,7 +687,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzVariable> items = this.variablesMap.get(childName);
 
             if (items != null) {
-                boolean removed = this.variables.remove(items.removeLast());
+                boolean removed = remove(this.variables, items.removeLast());
 
                 if (removed && items.isEmpty()) {
                     this.variablesMap.remove(childName);
@@ -684,7 +705,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzVariable> items = this.variablesMap.remove(childName);
 
             if (items != null) {
-                return this.variables.removeAll(items);
+                return removeAll(this.variables, items);
             }
         }
 
@@ -706,6 +727,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     public void removeAllVariables() {
         if (this.variables != null) {
             this.variables.clear();
+            unindexAll(ClausewitzVariable.class);
             this.variablesMap.clear();
         }
     }
@@ -723,14 +745,17 @@ public final class ClausewitzItem extends ClausewitzPObject {
             throw new NullPointerException("Can't add a null list");
         }
 
+        detach(list);
+
         if (increaseOrders) {
-            this.getAllOrdered().stream().filter(co -> co.order >= list.order).forEach(co -> co.order++);
+            increaseOrders(list.order, null);
         } else {
             list.order = getNbObjects();
         }
 
         getInternalLists().add(list);
         this.listsMap.computeIfAbsent(list.getName(), k -> new ArrayList<>(1)).add(list);
+        index(list);
 
         return list;
     }
@@ -867,7 +892,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     }
 
     public ClausewitzList changeChildToList(int childOrder, String listName, boolean sameLine, String... values) {
-        removeChildIf(c -> c.order == childOrder);
+        removeChildIf(c -> c.getOrder() == childOrder);
 
         ClausewitzList list = new ClausewitzList(this, listName, childOrder, sameLine);
         list.addAll(values);
@@ -879,6 +904,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     public boolean removeList(int id) {
         if (this.lists != null) {
             ClausewitzList list = this.lists.remove(id);
+            unindex(list);
 
             if (list != null) {
                 List<ClausewitzList> listsList = this.listsMap.get(list.getName());
@@ -899,7 +925,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
 
     public boolean removeList(ClausewitzList child) {
         if (this.lists != null) {
-            boolean removed = this.lists.remove(child);
+            boolean removed = remove(this.lists, child);
 
             if (removed) {
                 List<ClausewitzList> listsList = this.listsMap.get(child.getName());
@@ -923,7 +949,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzList> items = this.listsMap.get(listName);
 
             if (items != null && items.size() > id) {
-                boolean removed = this.lists.remove(items.remove(id));
+                boolean removed = remove(this.lists, items.remove(id));
 
                 if (removed && items.isEmpty()) {
                     this.listsMap.remove(listName);
@@ -941,7 +967,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzList> items = this.listsMap.get(listName);
 
             if (items != null) {
-                boolean removed = this.lists.remove(items.removeFirst());
+                boolean removed = remove(this.lists, items.removeFirst());
 
                 if (removed && items.isEmpty()) {
                     this.listsMap.remove(listName);
@@ -959,7 +985,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzList> items = this.listsMap.get(childName);
 
             if (items != null) {
-                boolean removed = this.lists.remove(items.removeLast());
+                boolean removed = remove(this.lists, items.removeLast());
 
                 if (removed && items.isEmpty()) {
                     this.listsMap.remove(childName);
@@ -977,7 +1003,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             List<ClausewitzList> items = this.listsMap.remove(listName);
 
             if (items != null) {
-                return this.lists.removeAll(items);
+                return removeAll(this.lists, items);
             }
         }
 
@@ -987,6 +1013,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
     public void removeAllLists() {
         if (this.lists != null) {
             this.lists.clear();
+            unindexAll(ClausewitzList.class);
             this.listsMap.clear();
         }
     }
@@ -1026,6 +1053,34 @@ public final class ClausewitzItem extends ClausewitzPObject {
         removeAllLists();
     }
 
+    //Moves all the objects of other after the ones of this item, keeping their order. other is empty afterwards
+    public void moveAll(ClausewitzItem other) {
+        if (other == null) {
+            throw new NullPointerException("Can't move objects from a null item");
+        }
+
+        for (ClausewitzObject object : other.getAllOrdered()) {
+            if (ClausewitzItem.class.equals(object.getClass())) {
+                ((ClausewitzItem) object).parent = this;
+                addChild((ClausewitzItem) object);
+            } else if (ClausewitzList.class.equals(object.getClass())) {
+                ((ClausewitzList) object).parent = this;
+                addList((ClausewitzList) object);
+            } else if (ClausewitzVariable.class.equals(object.getClass())) {
+                addVariable((ClausewitzVariable) object);
+            }
+        }
+
+        other.children = null;
+        other.childrenMap = null;
+        other.variables = null;
+        other.variablesMap = null;
+        other.lists = null;
+        other.listsMap = null;
+        other.objects = null;
+        other.objectsMap = null;
+    }
+
     public int getNbChildren() {
         return this.children == null ? 0 : this.children.size();
     }
@@ -1442,54 +1497,241 @@ public final class ClausewitzItem extends ClausewitzPObject {
         return this.lists == null ? new ArrayList<>() : this.lists;
     }
 
+    //A copy, the item can be modified while going through it
     public List<ClausewitzObject> getAllOrdered() {
-        List<ClausewitzObject> objects = new ArrayList<>();
+        return new ArrayList<>(getAllOrderedView());
+    }
 
-        if (this.children != null) {
-            objects.addAll(this.children);
+    public List<ClausewitzObject> getAllOrdered(String name) {
+        return new ArrayList<>(getAllOrderedView(name));
+    }
+
+    //Read only view of the objects of the item, without copy. The item must not be modified while going through it
+    public List<ClausewitzObject> getAllOrderedView() {
+        return this.objects == null ? List.of() : Collections.unmodifiableList(this.objects);
+    }
+
+    public List<ClausewitzObject> getAllOrderedView(String name) {
+        if (this.objectsMap != null) {
+            List<ClausewitzObject> list = this.objectsMap.get(name);
+
+            if (list != null) {
+                return Collections.unmodifiableList(list);
+            }
         }
 
-        if (this.variables != null) {
-            objects.addAll(this.variables);
+        return List.of();
+    }
+
+    public int getMaxOrder() {
+        return this.objects == null || this.objects.isEmpty() ? 0 : this.objects.getLast().getOrder();
+    }
+
+    public boolean removeByOrder(int order) {
+        List<ClausewitzObject> objects = getObjects(order);
+
+        for (ClausewitzObject object : objects) {
+            if (object instanceof ClausewitzList list) {
+                removeList(list);
+                return true;
+            }
         }
 
-        if (this.lists != null) {
-            objects.addAll(this.lists);
+        boolean removed = false;
+
+        for (ClausewitzObject object : objects) {
+            if (object instanceof ClausewitzVariable variable) {
+                removed |= removeVariable(variable);
+            }
         }
 
-        objects.sort(Comparator.comparingInt(ClausewitzObject::getOrder));
+        if (removed) {
+            return true;
+        }
 
-        return objects;
+        for (ClausewitzObject object : objects) {
+            if (object instanceof ClausewitzItem child) {
+                removeChild(child);
+                return true;
+            }
+        }
+
+        return false;
     }
 
-    public List<ClausewitzObject> getAllOrdered(String name) {
-        List<ClausewitzObject> objects = new ArrayList<>(getChildren(name));
-        objects.addAll(getVars(name));
-        objects.addAll(getLists(name));
-        objects.sort(Comparator.comparingInt(ClausewitzObject::getOrder));
+    private List<ClausewitzObject> getObjects(int order) {
+        if (this.objects instanceof OrderTree tree) {
+            return tree.withOrder(order);
+        }
+
+        List<ClausewitzObject> objects = new ArrayList<>(1);
+
+        if (this.objects != null) {
+            for (int i = lowerBound(this.objects, order, -1); i < this.objects.size() && this.objects.get(i).getOrder() == order; i++) {
+                objects.add(this.objects.get(i));
+            }
+        }
 
         return objects;
     }
 
-    public int getMaxOrder() {
-        return getAllOrdered().stream().mapToInt(ClausewitzObject::getOrder).max().orElse(0);
+    //Orders keep their relative order, so the sorted lists stay sorted
+    void increaseOrders(int from, ClausewitzObject except) {
+        if (this.objects == null) {
+            return;
+        }
+
+        int index = this.objects instanceof OrderTree ? 0 : lowerBound(this.objects, from, -1);
+
+        if (!(this.objects instanceof OrderTree) && this.objects.size() - index > TREE_THRESHOLD) {
+            this.objects = new OrderTree(this.objects);
+        }
+
+        if (this.objects instanceof OrderTree tree) {
+            boolean shifted = except != null && except.getOrder() >= from;
+            tree.increaseOrders(from);
+
+            if (shifted) {
+                tree.decreaseOrder(except);
+            }
+        } else {
+            for (int i = index; i < this.objects.size(); i++) {
+                ClausewitzObject object = this.objects.get(i);
+
+                if (object != except) {
+                    object.order++;
+                }
+            }
+        }
     }
 
-    public boolean removeByOrder(int order) {
-        if (this.lists != null) {
-            if (removeListIf(l -> l.order == order)) {
+    //An object keeps the order it had in its previous item until it is added
+    private static void detach(ClausewitzObject object) {
+        if (object.node != null) {
+            object.order = object.getOrder();
+            object.node = null;
+        }
+    }
+
+    private void index(ClausewitzObject object) {
+        if (this.objects == null) {
+            this.objects = new ArrayList<>(1);
+            this.objectsMap = new HashMap<>();
+        }
+
+        if (this.objects instanceof OrderTree tree) {
+            tree.insert(object);
+        } else {
+            insert(this.objects, object);
+        }
+
+        insert(this.objectsMap.computeIfAbsent(object.getName(), k -> new ArrayList<>(1)), object);
+    }
+
+    private void unindex(ClausewitzObject object) {
+        if (this.objects == null) {
+            return;
+        }
+
+        List<ClausewitzObject> list = this.objectsMap.get(object.getName());
+
+        if (list != null && removeSame(list, object)) {
+            if (list.isEmpty()) {
+                this.objectsMap.remove(object.getName());
+            }
+        } else { //Renamed since it was added
+            this.objectsMap.values().removeIf(l -> removeSame(l, object) && l.isEmpty());
+        }
+
+        if (this.objects instanceof OrderTree tree) {
+            if (!tree.remove(object)) { //Added to another item since
+                this.objects = tree.release();
+                removeSame(this.objects, object);
+            }
+        } else {
+            removeSame(this.objects, object);
+        }
+    }
+
+    private void unindexAll(Class<? extends ClausewitzObject> type) {
+        if (this.objects != null) {
+            if (this.objects instanceof OrderTree tree) {
+                this.objects = tree.release();
+            }
+
+            this.objects.removeIf(type::isInstance);
+            this.objectsMap.values().removeIf(l -> l.removeIf(type::isInstance) && l.isEmpty());
+        }
+    }
+
+    //Same as list.remove(object), the object that was removed is the one that is unindexed
+    private <T extends ClausewitzObject> boolean remove(List<T> list, T object) {
+        int index = list.indexOf(object);
+
+        if (index < 0) {
+            return false;
+        }
+
+        unindex(list.remove(index));
+
+        return true;
+    }
+
+    private <T extends ClausewitzObject> boolean removeAll(List<T> list, Collection<T> objects) {
+        return list.removeIf(object -> {
+            if (objects.contains(object)) {
+                unindex(object);
                 return true;
             }
+
+            return false;
+        });
+    }
+
+    //First index of the objects at or after this order and rank
+    private static int lowerBound(List<ClausewitzObject> list, int order, int rank) {
+        int low = 0;
+        int high = list.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            ClausewitzObject object = list.get(middle);
+            int objectOrder = object.getOrder();
+
+            if (objectOrder < order || (objectOrder == order && OrderTree.rank(object) < rank)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
         }
 
-        if (this.variables != null) {
-            if (removeVariablesIf(v -> v.order == order)) {
+        return low;
+    }
+
+    //After the objects with the same order and rank, mostly at the end
+    private static void insert(List<ClausewitzObject> list, ClausewitzObject object) {
+        int index = list.size();
+
+        int order = object.getOrder();
+
+        if (index > 0 && (list.getLast().getOrder() > order || (list.getLast().getOrder() == order && OrderTree.rank(list.getLast()) > OrderTree.rank(object)))) {
+            index = lowerBound(list, order, OrderTree.rank(object) + 1);
+        }
+
+        list.add(index, object);
+    }
+
+    private static boolean removeSame(List<ClausewitzObject> list, ClausewitzObject object) {
+        for (int i = lowerBound(list, object.getOrder(), OrderTree.rank(object)); i < list.size(); i++) {
+            if (list.get(i) == object) {
+                list.remove(i);
                 return true;
             }
         }
 
-        if (this.children != null) {
-            if (removeChildIf(c -> c.order == order)) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == object) {
+                list.remove(i);
                 return true;
             }
         }
@@ -1574,14 +1816,14 @@ public final class ClausewitzItem extends ClausewitzPObject {
             if (this.sameLine && this.children != null && !this.children.isEmpty()) {
                 ClausewitzUtils.printTabs(bufferedWriter, depth + 1);
 
-                for (ClausewitzObject object : getAllOrdered()) {
+                for (ClausewitzObject object : getAllOrderedView()) {
                     object.write(bufferedWriter, spaced, 0, listeners);
                     ClausewitzUtils.printSpace(bufferedWriter);
                 }
 
                 bufferedWriter.newLine();
             } else {
-                for (ClausewitzObject object : getAllOrdered()) {
+                for (ClausewitzObject object : getAllOrderedView()) {
                     object.write(bufferedWriter, spaced, depth + 1, listeners);
                     bufferedWriter.newLine();
                 }
@@ -1590,7 +1832,7 @@ public final class ClausewitzItem extends ClausewitzPObject {
             ClausewitzUtils.printTabs(bufferedWriter, depth);
             ClausewitzUtils.printClose(bufferedWriter);
         } else {
-            List<ClausewitzObject> objects = getAllOrdered();
+            List<ClausewitzObject> objects = getAllOrderedView();
 
             for (int i = 0; i < objects.size(); i++) {
                 objects.get(i).write(bufferedWriter, spaced, depth, listeners);
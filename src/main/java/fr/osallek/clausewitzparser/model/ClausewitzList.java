@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -15,12 +16,19 @@ import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public final class ClausewitzList extends ClausewitzPObject {
 
     private List<String> values;
 
+    private ClausewitzValueType type; //When not null all values are raw, values is null
+
+    private long[] raws;
+
+    private int nbRaws;
+
     private final boolean sameLine;
 
     private final boolean hasBrackets;
@@ -43,18 +51,23 @@ public final class ClausewitzList extends ClausewitzPObject {
         this.hasBrackets = hasBrackets;
 
         if (increaseOrder) {
-            parent.getAllOrdered().stream().filter(co -> !co.equals(this)).filter(co -> co.order >= order).forEach(co -> co.order++);
+            parent.increaseOrders(order, this);
         }
     }
 
     public ClausewitzList(ClausewitzList other) {
         super(other);
         this.values = other.values;
+        this.type = other.type;
+        this.raws = other.raws == null ? null : other.raws.clone();
+        this.nbRaws = other.nbRaws;
         this.sameLine = other.sameLine;
         this.hasBrackets = other.hasBrackets;
     }
 
     private List<String> getInternalValues() {
+        materialize();
+
         if (this.values == null) {
             this.values = new ArrayList<>(1);
         }
@@ -62,7 +75,35 @@ public final class ClausewitzList extends ClausewitzPObject {
         return this.values;
     }
 
+    private void materialize() {
+        if (this.type != null) {
+            List<String> strings = new ArrayList<>(this.nbRaws);
+
+            for (int i = 0; i < this.nbRaws; i++) {
+                strings.add(this.type.format(this.raws[i]));
+            }
+
+            this.values = strings;
+            this.type = null;
+            this.raws = null;
+            this.nbRaws = 0;
+        }
+    }
+
+    public ClausewitzValueType getType() {
+        return this.type;
+    }
+
+    //Only meaningful when getType() is not null
+    public long getRaw(int id) {
+        return this.raws[id];
+    }
+
     public String get(int id) {
+        if (this.type != null) {
+            return id < 0 || id >= this.nbRaws ? null : this.type.format(this.raws[id]);
+        }
+
         if (id < 0 || this.values == null || id >= this.values.size()) {
             return null;
         }
@@ -71,6 +112,10 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public Integer getAsInt(int id) {
+        if (this.type != null && id >= 0 && id < this.nbRaws && this.type.isInt(this.raws[id])) {
+            return (int) this.raws[id];
+        }
+
         String s = get(id);
 
         if (ClausewitzUtils.isNotBlank(s)) {
@@ -81,6 +126,10 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public Double getAsDouble(int id) {
+        if (this.type != null && id >= 0 && id < this.nbRaws && this.type.isDouble(this.raws[id])) {
+            return this.type.toDouble(this.raws[id]);
+        }
+
         String s = get(id);
 
         if (ClausewitzUtils.isNotBlank(s)) {
@@ -115,14 +164,22 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public int size() {
+        if (this.type != null) {
+            return this.nbRaws;
+        }
+
         return this.values == null ? 0 : this.values.size();
     }
 
     public int indexOf(String val) {
+        materialize();
+
         return this.values == null ? -1 : this.values.indexOf(val);
     }
 
     public boolean remove(int id) {
+        materialize();
+
         if (this.values != null) {
             return this.values.remove(id) != null;
         }
@@ -131,6 +188,8 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public boolean remove(String value) {
+        materialize();
+
         if (this.values != null) {
             for (int i = 0; i < this.values.size(); i++) {
                 if (this.values.get(i).equals(value)) {
@@ -143,6 +202,8 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public boolean removeLast(String value) {
+        materialize();
+
         if (this.values != null) {
             for (int i = this.values.size() - 1; i >= 0; i--) {
                 if (this.values.get(i).equals(value)) {
@@ -155,6 +216,8 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public boolean removeAll(String value) {
+        materialize();
+
         if (this.values != null) {
             return this.values.removeIf(s -> s.equals(value));
         }
@@ -163,6 +226,10 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public void clear() {
+        this.type = null;
+        this.raws = null;
+        this.nbRaws = 0;
+
         if (this.values != null) {
             this.values.clear();
         }
@@ -179,7 +246,28 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public void add(int val) {
-        add(Integer.toString(val));
+        add(ClausewitzValueType.INT, val);
+    }
+
+    public void add(ClausewitzValueType type, long raw) {
+        if (type == null) {
+            throw new NullPointerException("type is null");
+        }
+
+        if (this.type != type && (this.type != null || !isEmpty())) { //Only lists of one type are kept raw
+            add(type.format(raw));
+            return;
+        }
+
+        if (this.raws == null) {
+            this.raws = new long[4];
+        } else if (this.nbRaws == this.raws.length) {
+            this.raws = Arrays.copyOf(this.raws, this.nbRaws * 2);
+        }
+
+        this.type = type;
+        this.values = null;
+        this.raws[this.nbRaws++] = raw;
     }
 
     public void add(double val) {
@@ -187,7 +275,7 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public void add(boolean val) {
-        add(val ? "yes" : "no");
+        add(ClausewitzValueType.BOOL, val ? 1 : 0);
     }
 
     public void add(LocalDate date) {
@@ -242,6 +330,8 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public void change(String previous, String newOne) {
+        materialize();
+
         if (this.values != null && ClausewitzUtils.isNotBlank(newOne)) {
             Integer index = null;
 
@@ -287,6 +377,8 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public boolean contains(String val) {
+        materialize();
+
         if (this.values == null) {
             return false;
         }
@@ -307,6 +399,10 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public List<String> getValues() {
+        if (this.type != null) {
+            return getStream().collect(Collectors.toList());
+        }
+
         if (this.values != null) {
             return new ArrayList<>(this.values);
         }
@@ -315,22 +411,42 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public Stream<String> getStream() {
+        if (this.type != null) {
+            return IntStream.range(0, this.nbRaws).mapToObj(this::get);
+        }
+
         return this.values == null ? Stream.empty() : this.values.stream();
     }
 
     public List<Integer> getValuesAsInt() {
+        if (this.type != null) {
+            return getStreamAsInt().collect(Collectors.toList());
+        }
+
         return getValues().stream().map(Integer::parseInt).collect(Collectors.toList());
     }
 
     public Stream<Integer> getStreamAsInt() {
+        if (this.type != null) {
+            return IntStream.range(0, this.nbRaws).mapToObj(this::getAsInt);
+        }
+
         return getStream().map(Integer::parseInt);
     }
 
     public List<Double> getValuesAsDouble() {
+        if (this.type != null) {
+            return getStreamAsDouble().collect(Collectors.toList());
+        }
+
         return getValues().stream().map(Double::parseDouble).collect(Collectors.toList());
     }
 
     public Stream<Double> getStreamAsDouble() {
+        if (this.type != null) {
+            return IntStream.range(0, this.nbRaws).mapToObj(this::getAsDouble);
+        }
+
         return getStream().map(Double::parseDouble);
     }
 
@@ -343,6 +459,8 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public void sort(Comparator<String> comparator) {
+        materialize();
+
         if (this.values != null) {
             this.values.sort(comparator);
         }
@@ -369,7 +487,7 @@ public final class ClausewitzList extends ClausewitzPObject {
     }
 
     public boolean isEmpty() {
-        return this.values == null || this.values.isEmpty();
+        return size() == 0;
     }
 
     @Override
@@ -382,12 +500,29 @@ public final class ClausewitzList extends ClausewitzPObject {
             return false;
         }
 
-        return name.equals(clausewitzList.name) && values.equals(clausewitzList.values);
+        if (!name.equals(clausewitzList.name) || size() != clausewitzList.size()) {
+            return false;
+        }
+
+        //Compared on the written values, without materializing the raws of either list
+        for (int i = 0; i < size(); i++) {
+            if (!Objects.equals(get(i), clausewitzList.get(i))) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, values);
+        int valuesHash = 1; //Same as the hash of the list of the values
+
+        for (int i = 0; i < size(); i++) {
+            valuesHash = 31 * valuesHash + Objects.hashCode(get(i));
+        }
+
+        return Objects.hash(name, valuesHash);
     }
 
     @Override
@@ -416,8 +551,8 @@ public final class ClausewitzList extends ClausewitzPObject {
                 ClausewitzUtils.printTabs(bufferedWriter, depth + 1);
             }
 
-            for (String str : getInternalValues()) {
-                bufferedWriter.write(str);
+            for (int i = 0; i < size(); i++) {
+                bufferedWriter.write(get(i));
                 ClausewitzUtils.printSpace(bufferedWriter);
             }
 
@@ -425,9 +560,9 @@ public final class ClausewitzList extends ClausewitzPObject {
                 bufferedWriter.newLine();
             }
         } else {
-            for (String str : getInternalValues()) {
+            for (int i = 0; i < size(); i++) {
                 ClausewitzUtils.printTabs(bufferedWriter, depth + 1);
-                bufferedWriter.write(str);
+                bufferedWriter.write(get(i));
                 bufferedWriter.newLine();
             }
         }
@@ -12,6 +12,8 @@ public abstract class ClausewitzObject {
 
     protected int order;
 
+    OrderTree.Node node; //Set while in an item that keeps its objects in an OrderTree, the order is then in the node
+
     protected ClausewitzObject(String name, int order) {
         this.name = name;
         this.order = order;
@@ -19,7 +21,7 @@ public abstract class ClausewitzObject {
 
     protected ClausewitzObject(ClausewitzObject other) {
         this.name = other.name;
-        this.order = other.order;
+        this.order = other.getOrder();
     }
 
     public String getName() {
@@ -31,7 +33,7 @@ public abstract class ClausewitzObject {
     }
 
     public int getOrder() {
-        return order;
+        return this.node == null ? this.order : this.node.order();
     }
 
     public abstract void write(BufferedWriter bufferedWriter, int depth, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) throws IOException;
@@ -2,7 +2,7 @@ package fr.osallek.clausewitzparser.model;
 
 public abstract class ClausewitzPObject extends ClausewitzObject {
 
-    protected final ClausewitzItem parent;
+    protected ClausewitzItem parent;
 
     protected ClausewitzPObject(String name, int order, ClausewitzItem parent, boolean increaseOrder) {
         super(name, order);
@@ -0,0 +1,48 @@
+package fr.osallek.clausewitzparser.model;
+
+/*
+ * Type of a value kept as a raw long instead of a String, the String is only built when needed.
+ */
+public enum ClausewitzValueType {
+    INT,
+    LONG,
+    UNSIGNED_LONG,
+    FIXED_POINT, //Thousandths stored as int
+    DOUBLE, //Bits of the double
+    BOOL; //1 for yes
+
+    public String format(long raw) {
+        return switch (this) {
+            case INT -> Integer.toString((int) raw);
+            case LONG -> Long.toString(raw);
+            case UNSIGNED_LONG -> Long.toUnsignedString(raw);
+            case FIXED_POINT -> Float.toString((int) raw / 1_000f);
+            case DOUBLE -> Double.toString(Double.longBitsToDouble(raw));
+            case BOOL -> raw != 0 ? "yes" : "no";
+        };
+    }
+
+    public boolean isInt(long raw) {
+        return switch (this) {
+            case INT -> true;
+            case LONG, UNSIGNED_LONG -> raw >= Integer.MIN_VALUE && raw <= Integer.MAX_VALUE && (this == LONG || raw >= 0);
+            default -> false;
+        };
+    }
+
+    public boolean isLong(long raw) {
+        return this == INT || this == LONG || (this == UNSIGNED_LONG && raw >= 0);
+    }
+
+    public boolean isDouble(long raw) {
+        return this != BOOL && (this != UNSIGNED_LONG || raw >= 0);
+    }
+
+    public double toDouble(long raw) {
+        return switch (this) {
+            case FIXED_POINT -> (int) raw / 1_000d;
+            case DOUBLE -> Double.longBitsToDouble(raw);
+            default -> raw;
+        };
+    }
+}
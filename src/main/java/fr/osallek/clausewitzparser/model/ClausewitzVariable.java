@@ -14,6 +14,10 @@ public final class ClausewitzVariable extends ClausewitzObject {
 
     private String value;
 
+    private ClausewitzValueType type; //When not null the value is raw and value is null
+
+    private long raw;
+
     public ClausewitzVariable(String name, int order, String value) {
         super(name, order);
         setValue(value);
@@ -48,16 +52,35 @@ public final class ClausewitzVariable extends ClausewitzObject {
         setValue(value, quotes);
     }
 
+    public ClausewitzVariable(String name, int order, ClausewitzValueType type, long raw) {
+        super(name, order);
+        setValue(type, raw);
+    }
+
     public ClausewitzVariable(ClausewitzVariable other) {
         super(other);
         this.value = other.value;
+        this.type = other.type;
+        this.raw = other.raw;
     }
 
     public String getValue() {
-        return this.value;
+        return this.type == null ? this.value : this.type.format(this.raw);
+    }
+
+    public ClausewitzValueType getType() {
+        return this.type;
+    }
+
+    public long getRaw() {
+        return this.raw;
     }
 
     public Integer getAsInt() {
+        if (this.type != null && this.type.isInt(this.raw)) {
+            return (int) this.raw;
+        }
+
         String s = getValue();
 
         if (ClausewitzUtils.isNotBlank(s)) {
@@ -68,6 +91,10 @@ public final class ClausewitzVariable extends ClausewitzObject {
     }
 
     public Long getAsLong() {
+        if (this.type != null && this.type.isLong(this.raw)) {
+            return this.raw;
+        }
+
         String s = getValue();
 
         if (ClausewitzUtils.isNotBlank(s)) {
@@ -78,6 +105,10 @@ public final class ClausewitzVariable extends ClausewitzObject {
     }
 
     public Double getAsDouble() {
+        if (this.type != null && this.type.isDouble(this.raw)) {
+            return this.type.toDouble(this.raw);
+        }
+
         String s = getValue();
 
         if (ClausewitzUtils.isNotBlank(s)) {
@@ -88,7 +119,11 @@ public final class ClausewitzVariable extends ClausewitzObject {
     }
 
     public Boolean getAsBool() {
-        String s = getValue();
+        if (ClausewitzValueType.BOOL == this.type) {
+            return this.raw != 0;
+        }
+
+        String s = getValue(); //Other types are read from their written value
 
         if (ClausewitzUtils.isNotBlank(s)) {
             return "yes".equals(ClausewitzUtils.removeQuotes(s));
@@ -98,6 +133,14 @@ public final class ClausewitzVariable extends ClausewitzObject {
     }
 
     public LocalDate getAsDate() {
+        if (this.type != null && this.type.isLong(this.raw)) {
+            try {
+                return ClausewitzUtils.hoursToDate(this.raw);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
         String s = getValue();
 
         if (ClausewitzUtils.isNotBlank(s)) {
@@ -113,14 +156,25 @@ public final class ClausewitzVariable extends ClausewitzObject {
 
     public void setValue(String value) {
         this.value = value;
+        this.type = null;
+    }
+
+    public void setValue(ClausewitzValueType type, long raw) {
+        if (type == null) {
+            throw new NullPointerException("type is null");
+        }
+
+        this.value = null;
+        this.type = type;
+        this.raw = raw;
     }
 
     public void setValue(int value) {
-        setValue(Integer.toString(value));
+        setValue(ClausewitzValueType.INT, value);
     }
 
     public void setValue(long value) {
-        setValue(Long.toString(value));
+        setValue(ClausewitzValueType.LONG, value);
     }
 
     public void setValue(double value) {
@@ -128,7 +182,7 @@ public final class ClausewitzVariable extends ClausewitzObject {
     }
 
     public void setValue(boolean value) {
-        setValue(value ? "yes" : "no");
+        setValue(ClausewitzValueType.BOOL, value ? 1 : 0);
     }
 
     public void setValue(LocalDate value) {
@@ -153,12 +207,12 @@ public final class ClausewitzVariable extends ClausewitzObject {
 
         ClausewitzVariable ov = (ClausewitzVariable) obj;
 
-        return name.equals(ov.name) && value.equals(ov.value);
+        return name.equals(ov.name) && getValue().equals(ov.getValue());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.name, this.value);
+        return Objects.hash(this.name, getValue());
     }
 
     @Override
@@ -171,6 +225,6 @@ public final class ClausewitzVariable extends ClausewitzObject {
         ClausewitzUtils.printTabs(bufferedWriter, depth);
         bufferedWriter.write(this.name);
         ClausewitzUtils.printEquals(bufferedWriter, spaced);
-        bufferedWriter.write(this.value);
+        bufferedWriter.write(getValue());
     }
 }
@@ -0,0 +1,411 @@
+package fr.osallek.clausewitzparser.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*
+ * Objects of an item sorted by order then rank, in a treap. Shifting the orders of all the objects from an order is a lazy add on a subtree, so inserting
+ * before other objects does not renumber them one by one. An object in the tree reads its order from its node.
+ */
+final class OrderTree extends AbstractList<ClausewitzObject> {
+
+    static final class Node {
+
+        private final ClausewitzObject object;
+
+        private final int rank;
+
+        private final int priority;
+
+        private int order;
+
+        private int add; //Not yet added to the orders of this subtree
+
+        private int size = 1;
+
+        private Node left;
+
+        private Node right;
+
+        private Node parent;
+
+        private Node(ClausewitzObject object, int order, int rank, int priority) {
+            this.object = object;
+            this.order = order;
+            this.rank = rank;
+            this.priority = priority;
+        }
+
+        int order() {
+            int order = this.order;
+
+            for (Node node = this; node != null; node = node.parent) {
+                order += node.add;
+            }
+
+            return order;
+        }
+    }
+
+    private Node root;
+
+    private int seed = 0x9E3779B9;
+
+    private Node splitLeft; //Results of split
+
+    private Node splitRight;
+
+    //Objects must be sorted
+    OrderTree(List<ClausewitzObject> objects) {
+        List<Node> spine = new ArrayList<>();
+
+        for (int i = 0; i < objects.size(); i++) {
+            ClausewitzObject object = objects.get(i);
+            Node node = new Node(object, object.getOrder(), rank(object), nextPriority());
+            Node last = null;
+
+            while (!spine.isEmpty() && spine.getLast().priority < node.priority) {
+                last = spine.removeLast();
+            }
+
+            node.left = last;
+
+            if (last != null) {
+                last.parent = node;
+            }
+
+            if (!spine.isEmpty()) {
+                spine.getLast().right = node;
+                node.parent = spine.getLast();
+            }
+
+            spine.add(node);
+            object.node = node;
+        }
+
+        this.root = spine.isEmpty() ? null : spine.getFirst();
+        updateSizes(this.root);
+    }
+
+    @Override
+    public int size() {
+        return size(this.root);
+    }
+
+    @Override
+    public ClausewitzObject get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        Node node = this.root;
+
+        while (true) {
+            int left = size(node.left);
+
+            if (index < left) {
+                node = node.left;
+            } else if (index == left) {
+                return node.object;
+            } else {
+                index -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    @Override
+    public Iterator<ClausewitzObject> iterator() {
+        return new Iterator<>() {
+
+            private final int expectedModCount = OrderTree.this.modCount;
+
+            private Node next = first(OrderTree.this.root);
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public ClausewitzObject next() {
+                if (OrderTree.this.modCount != this.expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                if (this.next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Node node = this.next;
+                this.next = successor(node);
+
+                return node.object;
+            }
+        };
+    }
+
+    static int rank(ClausewitzObject object) {
+        return switch (object) {
+            case ClausewitzItem ignored -> 0;
+            case ClausewitzVariable ignored -> 1;
+            default -> 2;
+        };
+    }
+
+    void insert(ClausewitzObject object) {
+        Node node = new Node(object, object.getOrder(), rank(object), nextPriority());
+        split(this.root, node.order, node.rank);
+        Node right = this.splitRight;
+        this.root = merge(merge(this.splitLeft, node), right);
+        this.root.parent = null;
+        object.node = node;
+        this.modCount++;
+    }
+
+    boolean remove(ClausewitzObject object) {
+        Node node = object.node;
+
+        if (node == null || node.object != object || rootOf(node) != this.root) {
+            return false;
+        }
+
+        pushPath(node);
+        Node child = merge(node.left, node.right);
+        Node parent = node.parent;
+
+        if (child != null) {
+            child.parent = parent;
+        }
+
+        if (parent == null) {
+            this.root = child;
+        } else if (parent.left == node) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+
+        for (Node n = parent; n != null; n = n.parent) {
+            update(n);
+        }
+
+        object.order = node.order;
+        object.node = null;
+        this.modCount++;
+
+        return true;
+    }
+
+    //Orders of all the objects at or after from are increased by one
+    void increaseOrders(int from) {
+        split(this.root, from - 1, Integer.MAX_VALUE);
+        Node right = this.splitRight;
+
+        if (right != null) {
+            right.add++;
+        }
+
+        this.root = merge(this.splitLeft, right);
+
+        if (this.root != null) {
+            this.root.parent = null;
+        }
+    }
+
+    //Only for an object that stays between its neighbours
+    void decreaseOrder(ClausewitzObject object) {
+        if (object.node != null && rootOf(object.node) == this.root) {
+            object.node.order--;
+        }
+    }
+
+    //Objects with this order, in order
+    List<ClausewitzObject> withOrder(int order) {
+        List<ClausewitzObject> objects = new ArrayList<>(1);
+        Node ceiling = null;
+        int add = 0;
+
+        for (Node node = this.root; node != null; ) {
+            add += node.add;
+
+            if (node.order + add >= order) {
+                ceiling = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        for (Node node = ceiling; node != null && node.order() == order; node = successor(node)) {
+            objects.add(node.object);
+        }
+
+        return objects;
+    }
+
+    //Puts the orders back in the objects, for a return to a plain list
+    List<ClausewitzObject> release() {
+        List<ClausewitzObject> objects = new ArrayList<>(size());
+
+        for (ClausewitzObject object : this) {
+            objects.add(object);
+        }
+
+        for (ClausewitzObject object : objects) {
+            object.order = object.getOrder();
+            object.node = null;
+        }
+
+        this.root = null;
+        this.modCount++;
+
+        return objects;
+    }
+
+    //Left gets the nodes up to order and rank included
+    private void split(Node node, int order, int rank) {
+        if (node == null) {
+            this.splitLeft = null;
+            this.splitRight = null;
+            return;
+        }
+
+        push(node);
+
+        if (node.order < order || (node.order == order && node.rank <= rank)) {
+            split(node.right, order, rank);
+            node.right = this.splitLeft;
+
+            if (node.right != null) {
+                node.right.parent = node;
+            }
+
+            update(node);
+            node.parent = null;
+            this.splitLeft = node;
+        } else {
+            split(node.left, order, rank);
+            node.left = this.splitRight;
+
+            if (node.left != null) {
+                node.left.parent = node;
+            }
+
+            update(node);
+            node.parent = null;
+            this.splitRight = node;
+        }
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            push(left);
+            left.right = merge(left.right, right);
+            left.right.parent = left;
+            update(left);
+
+            return left;
+        } else {
+            push(right);
+            right.left = merge(left, right.left);
+            right.left.parent = right;
+            update(right);
+
+            return right;
+        }
+    }
+
+    private static void push(Node node) {
+        if (node.add != 0) {
+            node.order += node.add;
+
+            if (node.left != null) {
+                node.left.add += node.add;
+            }
+
+            if (node.right != null) {
+                node.right.add += node.add;
+            }
+
+            node.add = 0;
+        }
+    }
+
+    private static void pushPath(Node node) {
+        if (node.parent != null) {
+            pushPath(node.parent);
+        }
+
+        push(node);
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int updateSizes(Node node) {
+        if (node == null) {
+            return 0;
+        }
+
+        node.size = 1 + updateSizes(node.left) + updateSizes(node.right);
+
+        return node.size;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node rootOf(Node node) {
+        while (node.parent != null) {
+            node = node.parent;
+        }
+
+        return node;
+    }
+
+    private static Node first(Node node) {
+        if (node != null) {
+            while (node.left != null) {
+                node = node.left;
+            }
+        }
+
+        return node;
+    }
+
+    private static Node successor(Node node) {
+        if (node.right != null) {
+            return first(node.right);
+        }
+
+        while (node.parent != null && node.parent.right == node) {
+            node = node.parent;
+        }
+
+        return node.parent;
+    }
+
+    //Xorshift, the priorities only need to be spread
+    private int nextPriority() {
+        this.seed ^= this.seed << 13;
+        this.seed ^= this.seed >>> 17;
+        this.seed ^= this.seed << 5;
+
+        return this.seed;
+    }
+}
@@ -0,0 +1,71 @@
+package fr.osallek.clausewitzparser.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Names of the binary tokens, indexed by the unsigned value of the token.
+ */
+public final class TokenTable {
+
+    private final String[] strings = new String[1 << 16];
+
+    private int size;
+
+    private volatile Map<String, Integer> tokensByString; //Built on first use, only needed to write binary
+
+    public TokenTable() {
+    }
+
+    public TokenTable(Map<Integer, String> tokens) {
+        if (tokens == null) {
+            throw new NullPointerException("tokens is null");
+        }
+
+        tokens.forEach(this::put);
+    }
+
+    public void put(int token, String string) {
+        int index = token & 0xFFFF;
+
+        if (this.strings[index] == null && string != null) {
+            this.size++;
+        } else if (this.strings[index] != null && string == null) {
+            this.size--;
+        }
+
+        this.strings[index] = string;
+        this.tokensByString = null;
+    }
+
+    public String get(int token) {
+        return this.strings[token & 0xFFFF];
+    }
+
+    //Smallest token of the string, -1 if none
+    public int getToken(String string) {
+        Map<String, Integer> map = this.tokensByString;
+
+        if (map == null) {
+            map = new HashMap<>(this.size * 2);
+
+            for (int i = 0; i < this.strings.length; i++) {
+                if (this.strings[i] != null) {
+                    map.putIfAbsent(this.strings[i], i);
+                }
+            }
+
+            this.tokensByString = map;
+        }
+
+        return map.getOrDefault(string, -1);
+    }
+
+    public boolean contains(int token) {
+        return this.strings[token & 0xFFFF] != null;
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
@@ -0,0 +1,34 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.ClausewitzItem;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/*
+ * Files parsed by ClausewitzParser.parseAll(Path, ...), by path in the order of the directory walk. A file that could not be parsed is only in errors.
+ */
+public final class BatchResult {
+
+    private final Map<Path, ClausewitzItem> items;
+
+    private final Map<Path, RuntimeException> errors;
+
+    BatchResult(Map<Path, ClausewitzItem> items, Map<Path, RuntimeException> errors) {
+        this.items = Collections.unmodifiableMap(items);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public Map<Path, ClausewitzItem> items() {
+        return this.items;
+    }
+
+    public Map<Path, RuntimeException> errors() {
+        return this.errors;
+    }
+
+    public boolean hasErrors() {
+        return !this.errors.isEmpty();
+    }
+}
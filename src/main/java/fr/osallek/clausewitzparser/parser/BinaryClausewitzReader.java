@@ -0,0 +1,234 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.BinaryToken;
+import fr.osallek.clausewitzparser.model.TokenTable;
+
+import java.util.Arrays;
+
+/*
+ * Names and values are only kept as token + position and decoded when asked for. The names of the opened objects that are values (quoted strings,
+ * numbers) are decoded when the object starts, a streamed ByteArray does not keep their bytes until the end of the object.
+ */
+class BinaryClausewitzReader extends ClausewitzReader {
+
+    private static final int NO_TOKEN = Integer.MIN_VALUE;
+
+    private final ByteArray reader;
+
+    private final TokenTable tokens;
+
+    private int[] nameTokens = new int[16]; //Token of the name of each opened object
+
+    private String[] names = new String[16]; //Name of each opened object when it is a value, null for a token
+
+    private int depth;
+
+    private int nameToken;
+
+    private int namePosition;
+
+    private String objectName;
+
+    private int valueToken;
+
+    private int valuePosition;
+
+    private boolean hasEquals;
+
+    BinaryClausewitzReader(ByteArray reader, int skip, TokenTable tokens) {
+        if (reader == null) {
+            throw new NullPointerException("reader is null");
+        }
+
+        this.reader = reader;
+        this.tokens = tokens;
+        this.reader.addPosition(skip); //Skip leader XXXbin
+    }
+
+    @Override
+    public Token next() {
+        if (Token.END_DOCUMENT == this.currentToken) {
+            return this.currentToken;
+        }
+
+        this.nameToken = NO_TOKEN;
+        this.objectName = null;
+        this.valueToken = NO_TOKEN;
+        this.hasEquals = false;
+
+        int token;
+        while ((token = ClausewitzParser.readToken(this.reader)) >= 0) {
+            BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+            if (BinaryToken.EQUALS == binaryToken) {
+                continue;
+            }
+
+            if (BinaryToken.OPEN == binaryToken) {
+                return startObject(NO_TOKEN, 0, false);
+            }
+
+            if (BinaryToken.END == binaryToken) {
+                if (this.depth == 0) {
+                    break;
+                }
+
+                this.depth--;
+                this.nameToken = this.nameTokens[this.depth];
+                this.objectName = this.names[this.depth];
+                this.names[this.depth] = null;
+
+                return this.currentToken = Token.END_OBJECT;
+            }
+
+            int position = skip(token);
+            int afterToken = this.reader.position();
+            int next = ClausewitzParser.readToken(this.reader);
+
+            if (BinaryToken.OPEN.token == next) {
+                return startObject(token, position, false);
+            }
+
+            if (BinaryToken.EQUALS.token == next) {
+                next = ClausewitzParser.readToken(this.reader);
+
+                if (BinaryToken.OPEN.token == next) {
+                    return startObject(token, position, true);
+                }
+
+                if (next >= 0) {
+                    this.nameToken = token;
+                    this.namePosition = position;
+                    this.valueToken = next;
+                    this.valuePosition = skip(next);
+
+                    return this.currentToken = Token.VARIABLE;
+                }
+            }
+
+            this.reader.position(afterToken);
+            this.valueToken = token;
+            this.valuePosition = position;
+
+            return this.currentToken = Token.VALUE;
+        }
+
+        this.depth = 0;
+
+        return this.currentToken = Token.END_DOCUMENT;
+    }
+
+    private Token startObject(int token, int position, boolean hasEquals) {
+        if (this.depth == this.nameTokens.length) {
+            this.nameTokens = Arrays.copyOf(this.nameTokens, this.depth * 2);
+            this.names = Arrays.copyOf(this.names, this.depth * 2);
+        }
+
+        this.nameToken = token;
+        this.objectName = token != NO_TOKEN && BinaryToken.ofToken(token) != null ? read(token, position) : null;
+        this.nameTokens[this.depth] = token;
+        this.names[this.depth] = this.objectName;
+        this.depth++;
+        this.hasEquals = hasEquals;
+
+        return this.currentToken = Token.START_OBJECT;
+    }
+
+    //Moves after the data of the token and returns where this data starts
+    private int skip(int token) {
+        int position = this.reader.position();
+        BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+        if (binaryToken != null) {
+            ClausewitzParser.skipBinaryValue(this.reader, binaryToken);
+        }
+
+        return position;
+    }
+
+    private String read(int token, int position) {
+        BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+        if (binaryToken == null) {
+            return ClausewitzParser.readTokenString(token, this.tokens, this.reader.charset());
+        }
+
+        int current = this.reader.position();
+
+        try {
+            this.reader.position(position);
+
+            return ClausewitzParser.readBinaryValue(this.reader, binaryToken);
+        } finally {
+            this.reader.position(current);
+        }
+    }
+
+    @Override
+    public String name() {
+        if (Token.START_OBJECT == this.currentToken || Token.END_OBJECT == this.currentToken) {
+            if (this.nameToken == NO_TOKEN) {
+                return "";
+            }
+
+            return this.objectName != null ? this.objectName : ClausewitzParser.readTokenString(this.nameToken, this.tokens, this.reader.charset());
+        }
+
+        if (Token.VARIABLE == this.currentToken) {
+            return read(this.nameToken, this.namePosition);
+        }
+
+        return null;
+    }
+
+    @Override
+    public String value() {
+        return this.valueToken == NO_TOKEN ? null : read(this.valueToken, this.valuePosition);
+    }
+
+    @Override
+    public boolean hasEquals() {
+        return this.hasEquals;
+    }
+
+    @Override
+    public int depth() {
+        return this.depth;
+    }
+
+    @Override
+    public void skipValue() {
+        if (Token.START_OBJECT != this.currentToken) {
+            return;
+        }
+
+        int level = 1;
+        int token;
+
+        while ((token = ClausewitzParser.readToken(this.reader)) >= 0) {
+            BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+            if (binaryToken == null) {
+                continue;
+            }
+
+            switch (binaryToken) {
+                case OPEN -> level++;
+                case END -> level--;
+                default -> ClausewitzParser.skipBinaryValue(this.reader, binaryToken);
+            }
+
+            if (level == 0) {
+                this.depth--;
+                this.names[this.depth] = null;
+                this.hasEquals = false;
+                this.currentToken = Token.END_OBJECT;
+
+                return;
+            }
+        }
+
+        this.depth = 0;
+        this.currentToken = Token.END_DOCUMENT;
+    }
+}
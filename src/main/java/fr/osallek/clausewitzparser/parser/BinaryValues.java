@@ -0,0 +1,87 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.ClausewitzList;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+
+import java.util.Arrays;
+
+/*
+ * Values read between two structural tokens of a binary file. Numbers and booleans are kept raw with their type, strings as is.
+ */
+class BinaryValues {
+
+    private String[] strings = new String[8];
+
+    private ClausewitzValueType[] types = new ClausewitzValueType[8];
+
+    private long[] raws = new long[8];
+
+    private int size;
+
+    void add(String value) {
+        grow();
+        this.strings[this.size] = value;
+        this.types[this.size] = null;
+        this.size++;
+    }
+
+    void add(ClausewitzValueType type, long raw) {
+        grow();
+        this.strings[this.size] = null;
+        this.types[this.size] = type;
+        this.raws[this.size] = raw;
+        this.size++;
+    }
+
+    private void grow() {
+        if (this.size == this.strings.length) {
+            this.strings = Arrays.copyOf(this.strings, this.size * 2);
+            this.types = Arrays.copyOf(this.types, this.size * 2);
+            this.raws = Arrays.copyOf(this.raws, this.size * 2);
+        }
+    }
+
+    String get(int index) {
+        return this.types[index] == null ? this.strings[index] : this.types[index].format(this.raws[index]);
+    }
+
+    ClausewitzValueType type(int index) {
+        return this.types[index];
+    }
+
+    long raw(int index) {
+        return this.raws[index];
+    }
+
+    String getLast() {
+        return get(this.size - 1);
+    }
+
+    void removeLast() {
+        this.size--;
+        this.strings[this.size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(this.strings, 0, this.size, null);
+        this.size = 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    void addTo(ClausewitzList list) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.types[i] == null) {
+                list.add(this.strings[i]);
+            } else {
+                list.add(this.types[i], this.raws[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.common.ClausewitzParseException;
+import fr.osallek.clausewitzparser.common.ClausewitzUtils;
+import fr.osallek.clausewitzparser.model.BinaryToken;
+import fr.osallek.clausewitzparser.model.ClausewitzItem;
+import fr.osallek.clausewitzparser.model.ClausewitzList;
+import fr.osallek.clausewitzparser.model.ClausewitzObject;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+import fr.osallek.clausewitzparser.model.ClausewitzVariable;
+import fr.osallek.clausewitzparser.model.TokenTable;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/*
+ * Writes a tree, or the events of ClausewitzParser.stream(...), in the binary format read by ClausewitzParser.convertBinary. Names and values found
+ * in the tokens are written as their token, the others as strings. Typed values of the tree keep their type, plain integers and yes/no are written
+ * as numbers and bools, everything else as a string so it is read back as the same text.
+ */
+public class BinaryWriter implements ClausewitzHandler, Flushable {
+
+    private final OutputStream outputStream;
+
+    private final TokenTable tokens;
+
+    private final Charset charset;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+    public BinaryWriter(OutputStream outputStream, TokenTable tokens, Charset charset) {
+        if (outputStream == null) {
+            throw new NullPointerException("outputStream is null");
+        }
+
+        if (tokens == null) {
+            throw new NullPointerException("tokens is null");
+        }
+
+        if (charset == null) {
+            throw new NullPointerException("charset is null");
+        }
+
+        this.outputStream = outputStream;
+        this.tokens = tokens;
+        this.charset = charset;
+    }
+
+    //Leader like EU4bin, to be skipped when reading
+    public void writeHeader(String header) {
+        byte[] bytes = header.getBytes(this.charset);
+        ensure(bytes.length);
+        this.buffer.put(bytes);
+    }
+
+    public void write(ClausewitzItem item) {
+        if (ClausewitzItem.DEFAULT_NAME.equals(item.getName())) {
+            writeContent(item);
+        } else {
+            startObject(item.getName(), item.isHasEquals());
+            writeContent(item);
+            endObject(item.getName());
+        }
+    }
+
+    private void writeContent(ClausewitzItem item) {
+        for (ClausewitzObject object : item.getAllOrderedView()) {
+            if (object instanceof ClausewitzItem child) {
+                write(child);
+            } else if (object instanceof ClausewitzVariable variable) {
+                writeString(variable.getName());
+                writeToken(BinaryToken.EQUALS.token);
+
+                if (variable.getType() != null) {
+                    writeTyped(variable.getType(), variable.getRaw());
+                } else {
+                    writeString(variable.getValue());
+                }
+            } else if (object instanceof ClausewitzList list) {
+                write(list);
+            }
+        }
+    }
+
+    private void write(ClausewitzList list) {
+        //Lists without name nor brackets are values that followed an object of the same name, see convertBinary
+        boolean brackets = list.isHasBrackets() || ClausewitzUtils.isNotBlank(list.getName());
+
+        if (brackets) {
+            startObject(list.getName(), true);
+        }
+
+        for (int i = 0; i < list.size(); i++) {
+            if (list.getType() != null) {
+                writeTyped(list.getType(), list.getRaw(i));
+            } else {
+                writeString(list.get(i));
+            }
+        }
+
+        if (brackets) {
+            endObject(list.getName());
+        }
+    }
+
+    @Override
+    public void startObject(String name, boolean hasEquals) {
+        if (ClausewitzUtils.isNotBlank(name)) {
+            writeString(name);
+
+            if (hasEquals) {
+                writeToken(BinaryToken.EQUALS.token);
+            }
+        }
+
+        writeToken(BinaryToken.OPEN.token);
+    }
+
+    @Override
+    public void endObject(String name) {
+        writeToken(BinaryToken.END.token);
+    }
+
+    @Override
+    public void variable(String name, String value) {
+        writeString(name);
+        writeToken(BinaryToken.EQUALS.token);
+        writeString(value);
+    }
+
+    @Override
+    public void value(String value) {
+        writeString(value);
+    }
+
+    private void writeTyped(ClausewitzValueType type, long raw) {
+        switch (type) {
+            case INT -> {
+                writeToken(BinaryToken.INT.token);
+                writeInt((int) raw);
+            }
+            case LONG -> {
+                if (raw >= 0 && raw <= 0xFFFFFFFFL) {
+                    writeToken(BinaryToken.UNSIGNED_INT.token);
+                    writeInt((int) raw);
+                } else if (raw >= 0) {
+                    writeToken(BinaryToken.UNSIGNED_LONG.token);
+                    writeLong(raw);
+                } else {
+                    writeString(type.format(raw)); //No signed long token
+                }
+            }
+            case UNSIGNED_LONG -> {
+                writeToken(BinaryToken.UNSIGNED_LONG.token);
+                writeLong(raw);
+            }
+            case FIXED_POINT -> {
+                writeToken(BinaryToken.FLOAT.token);
+                writeInt((int) raw);
+            }
+            case DOUBLE -> {
+                double d = Double.longBitsToDouble(raw);
+                long fixed = Math.round(d * 32_768);
+
+                if (fixed >= Integer.MIN_VALUE && fixed <= Integer.MAX_VALUE && (int) fixed / 65_536d * 2 == d) {
+                    writeToken(BinaryToken.DOUBLE.token);
+                    writeInt((int) fixed);
+                    writeInt(0);
+                } else {
+                    writeString(type.format(raw)); //Would not be read back as the same value
+                }
+            }
+            case BOOL -> writeBool(raw != 0);
+        }
+    }
+
+    private void writeString(String s) {
+        if (s == null) {
+            throw new NullPointerException("value is null");
+        }
+
+        if (s.length() > 1 && ClausewitzUtils.hasQuotes(s)) {
+            writeString(BinaryToken.QUOTED_STRING.token, s.substring(1, s.length() - 1));
+            return;
+        }
+
+        if ("yes".equals(s) || "no".equals(s)) {
+            writeBool("yes".equals(s));
+            return;
+        }
+
+        int token = this.tokens.getToken(s);
+
+        if (token >= 0 && BinaryToken.ofToken(token) == null) {
+            writeToken((short) token);
+            return;
+        }
+
+        Integer i = parseExactInt(s);
+
+        if (i != null) {
+            writeToken(BinaryToken.INT.token);
+            writeInt(i);
+        } else {
+            writeString(BinaryToken.NOT_QUOTED_STRING.token, s);
+        }
+    }
+
+    //Only if written back the same way
+    private static Integer parseExactInt(String s) {
+        if (s.isEmpty() || s.length() > 11) {
+            return null;
+        }
+
+        try {
+            int i = Integer.parseInt(s);
+
+            return Integer.toString(i).equals(s) ? i : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void writeString(short token, String s) {
+        byte[] bytes = s.getBytes(this.charset);
+
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new ClausewitzParseException("String of " + bytes.length + " bytes is too long for the binary format");
+        }
+
+        writeToken(token);
+        ensure(Short.BYTES + bytes.length);
+        this.buffer.putShort((short) bytes.length);
+        this.buffer.put(bytes);
+    }
+
+    private void writeBool(boolean value) {
+        writeToken(BinaryToken.BOOL.token);
+        ensure(1);
+        this.buffer.put((byte) (value ? 0 : 1)); //0 is read as yes
+    }
+
+    private void writeToken(short token) {
+        ensure(Short.BYTES);
+        this.buffer.putShort(token);
+    }
+
+    private void writeInt(int i) {
+        ensure(Integer.BYTES);
+        this.buffer.putInt(i);
+    }
+
+    private void writeLong(long l) {
+        ensure(Long.BYTES);
+        this.buffer.putLong(l);
+    }
+
+    private void ensure(int length) {
+        if (this.buffer.remaining() < length) {
+            flushBuffer();
+
+            if (this.buffer.capacity() < length) {
+                this.buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    private void flushBuffer() {
+        try {
+            this.outputStream.write(this.buffer.array(), 0, this.buffer.position());
+            this.buffer.clear();
+        } catch (IOException e) {
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        this.outputStream.flush();
+    }
+}
@@ -0,0 +1,639 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.common.ClausewitzParseException;
+import fr.osallek.clausewitzparser.ic4j.CharsetDetector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Text lexer working directly on the raw bytes of a file. Structural characters are all ASCII, so the bytes are only decoded through the charset
+ * when a token becomes a String. Only works for ASCII compatible charsets (single byte ones and UTF-8), see supports(Charset).
+ */
+public class ByteArray implements TextSource {
+
+    private static final int MAP_THRESHOLD = 1 << 20;
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private static final int STREAM_BUFFER_SIZE = 1 << 20;
+
+    private static final int KEEP_BEHIND = 1 << 16; //Kept before the current token when a stream buffer is refilled, for the values read back
+
+    private ByteBuffer buffer;
+
+    private final Charset charset;
+
+    private final boolean utf8;
+
+    private final char[] chars; //Decoded char of each byte for single byte charsets
+
+    private final InputStream source; //Null when all the data is in the buffer
+
+    private final boolean keepMark; //Text lexers go back to the mark, binary readers never set it
+
+    private boolean exhausted;
+
+    private int base; //Position of the first byte of the buffer
+
+    private int length; //Position after the last byte of the buffer
+
+    private int position;
+
+    private int mark;
+
+    private byte[] scratch;
+
+    public ByteArray(ByteBuffer buffer, Charset charset) {
+        this(buffer, charset, StandardCharsets.UTF_8.equals(charset) ? null : singleByteChars(charset));
+
+        if (!this.utf8 && this.chars == null) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported by " + ByteArray.class.getSimpleName());
+        }
+    }
+
+    private ByteArray(ByteBuffer buffer, Charset charset, char[] chars) {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.chars = chars;
+        this.length = this.buffer.limit();
+        this.source = null;
+        this.keepMark = false;
+    }
+
+    private ByteArray(InputStream source, Charset charset, char[] chars, boolean keepMark) {
+        this.buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.chars = chars;
+        this.source = source;
+        this.keepMark = keepMark;
+    }
+
+    //Reads the stream through a buffer of fixed size while it is parsed, so only the part being read is in memory. Can only be read forward:
+    //positions before the current token are lost and it can't be sliced. The stream is not closed
+    public static ByteArray stream(InputStream source, Charset charset) {
+        if (!supports(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not supported by " + ByteArray.class.getSimpleName());
+        }
+
+        return new ByteArray(source, charset, StandardCharsets.UTF_8.equals(charset) ? null : singleByteChars(charset), true);
+    }
+
+    //Same as stream for binary files
+    public static ByteArray binary(InputStream source, Charset charset) {
+        return new ByteArray(source, charset, null, false);
+    }
+
+    //For binary files, charset is only used to build the strings. Text methods can't be used
+    public static ByteArray binary(ByteBuffer buffer, Charset charset) {
+        return new ByteArray(buffer, charset, null);
+    }
+
+    public static ByteArray binary(File file, Charset charset) throws IOException {
+        return binary(read(file), charset);
+    }
+
+    public static ByteArray of(File file, Charset charset) throws IOException {
+        ByteBuffer buffer = read(file);
+
+        if (!CharsetDetector.canDecode(buffer, charset)) {
+            throw new MalformedInputException(1);
+        }
+
+        return new ByteArray(buffer, charset);
+    }
+
+    public static ByteBuffer read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File " + file.getAbsolutePath() + " is too large to be read");
+            }
+
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+
+            return buffer.flip();
+        }
+    }
+
+    public static boolean supports(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || singleByteChars(charset) != null;
+    }
+
+    private static char[] singleByteChars(Charset charset) {
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) {
+            return null;
+        }
+
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        char[] chars = new char[256];
+
+        try {
+            CharBuffer decoded = charset.newDecoder()
+                                        .onMalformedInput(CodingErrorAction.REPLACE)
+                                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                                        .replaceWith(String.valueOf(REPLACEMENT))
+                                        .decode(ByteBuffer.wrap(bytes));
+
+            if (decoded.remaining() != chars.length) {
+                return null;
+            }
+
+            decoded.get(chars);
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+
+        for (int i = 0; i < 0x80; i++) {
+            if (chars[i] != i) {
+                return null;
+            }
+        }
+
+        return chars;
+    }
+
+    public Charset charset() {
+        return this.charset;
+    }
+
+    @Override
+    public void reset() {
+        this.position = this.mark;
+    }
+
+    @Override
+    public void mark() {
+        this.mark = this.position;
+    }
+
+    @Override
+    public int position() {
+        return this.position;
+    }
+
+    @Override
+    public void position(int position) {
+        this.position = position;
+    }
+
+    @Override
+    public void addPosition(int position) {
+        this.position += position;
+    }
+
+    @Override
+    public int available() {
+        return this.length - this.position;
+    }
+
+    @Override
+    public int read() {
+        if (this.position >= this.length && !fill(this.position)) {
+            return -1;
+        }
+
+        return this.buffer.get(this.position++ - this.base) & 0xFF;
+    }
+
+    private int get(int index) {
+        return this.buffer.get(index - this.base) & 0xFF;
+    }
+
+    //Reads the source until index is in the buffer, false if it ends before. Only called once the buffer has been read, so costs nothing for files
+    private boolean fill(int index) {
+        if (this.source == null || this.exhausted) {
+            return false;
+        }
+
+        int keep = this.keepMark && this.mark >= this.base ? Math.min(this.mark, this.position) : this.position;
+        keep = Math.min(this.length, Math.max(this.base, keep - KEEP_BEHIND));
+
+        if (keep > this.base) {
+            byte[] array = this.buffer.array();
+            System.arraycopy(array, keep - this.base, array, 0, this.length - keep);
+            this.base = keep;
+        }
+
+        try {
+            while (true) {
+                int offset = this.length - this.base;
+
+                if (offset == this.buffer.capacity()) {
+                    if (index < this.length) {
+                        break;
+                    }
+
+                    this.buffer = ByteBuffer.wrap(Arrays.copyOf(this.buffer.array(), offset * 2)).order(ByteOrder.LITTLE_ENDIAN);
+                }
+
+                int read = this.source.read(this.buffer.array(), offset, this.buffer.capacity() - offset);
+
+                if (read < 0) {
+                    this.exhausted = true;
+                    break;
+                }
+
+                this.length += read;
+            }
+        } catch (IOException e) {
+            throw new ClausewitzParseException(e);
+        }
+
+        return index < this.length;
+    }
+
+    //Little endian reads for binary files, -1 when there is not enough data left
+
+    int readUnsignedShort() {
+        if (this.position + 2 > this.length && !fill(this.position + 1)) {
+            this.position = this.length;
+            return -1;
+        }
+
+        int value = this.buffer.getShort(this.position - this.base) & 0xFFFF;
+        this.position += 2;
+
+        return value;
+    }
+
+    short readShort() {
+        return (short) readUnsignedShort();
+    }
+
+    int readInt() {
+        if (this.position + 4 > this.length && !fill(this.position + 3)) {
+            this.position = this.length;
+            return -1;
+        }
+
+        int value = this.buffer.getInt(this.position - this.base);
+        this.position += 4;
+
+        return value;
+    }
+
+    long readLong() {
+        if (this.position + 8 > this.length && !fill(this.position + 7)) {
+            this.position = this.length;
+            return -1;
+        }
+
+        long value = this.buffer.getLong(this.position - this.base);
+        this.position += 8;
+
+        return value;
+    }
+
+    String readBytesAsString(int length) {
+        int start = this.position;
+        int end = start + Math.max(0, length);
+
+        if (end > this.length) {
+            fill(end - 1);
+        }
+
+        this.position = Math.min(this.length, end);
+
+        return string(start, this.position);
+    }
+
+    @Override
+    public String readLine() {
+        mark();
+        int end = this.position;
+
+        while (end < this.length || fill(end)) {
+            int c = get(end);
+
+            if ((c == '\n') || (c == '\r')) {
+                break;
+            }
+
+            end++;
+        }
+
+        String s = string(this.position, end);
+        this.position = end < this.length ? end + 1 : end; //Read \n or \r
+
+        return s;
+    }
+
+    @Override
+    public void skipLine() {
+        mark();
+
+        while (this.position < this.length || fill(this.position)) {
+            int c = get(this.position++);
+
+            if ((c == '\n') || (c == '\r')) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String readQuoted(boolean keepQuotes) {
+        int start = this.position;
+        int end = start;
+        mark();
+
+        while ((end < this.length || fill(end)) && '"' != get(end)) {
+            end++;
+        }
+
+        boolean closed = end < this.length;
+        this.position = closed ? end + 1 : end; //Read the trailing "
+
+        if (!keepQuotes) {
+            return string(start, end);
+        }
+
+        if (closed && start > 0 && '"' == get(start - 1)) {
+            return string(start - 1, end + 1);
+        }
+
+        return '"' + string(start, end) + '"';
+    }
+
+    @Override
+    public String readString(int firstChar) {
+        mark();
+        int end = skipContinuation(this.position);
+
+        while (end < this.length || fill(end)) {
+            int b = get(end);
+            int width = width(b);
+            int c = codePoint(end, b, width);
+
+            if (Character.isWhitespace(c)) {
+                break;
+            }
+
+            if ('_' == c || Character.isLetterOrDigit(c)) {
+                end += width;
+                continue;
+            }
+
+            break;
+        }
+
+        return token(firstChar, end);
+    }
+
+    @Override
+    public String readStringOrNumber(int firstChar) {
+        mark();
+        int end = skipContinuation(this.position);
+
+        while (end < this.length || fill(end)) {
+            int b = get(end);
+            int width = width(b);
+            int c = codePoint(end, b, width);
+
+            if (Character.isWhitespace(c)) {
+                break;
+            }
+
+            if ('\'' == c || '/' == c || '.' == c || '_' == c || '-' == c || ':' == c || Character.isLetterOrDigit(c)) {
+                end += width;
+            } else {
+                break;
+            }
+        }
+
+        return token(firstChar, end);
+    }
+
+    private int skipContinuation(int index) {
+        if (this.utf8) {
+            while ((index < this.length || fill(index)) && (get(index) & 0xC0) == 0x80) { //Rest of a multi bytes first char
+                index++;
+            }
+        }
+
+        return index;
+    }
+
+    private String token(int firstChar, int end) {
+        int start = this.position;
+        this.position = end;
+
+        if (start > 0 && firstChar == get(start - 1)) { //The first char is the one that has just been read
+            return string(start - 1, end);
+        }
+
+        return (char) firstChar + string(start, end);
+    }
+
+    @Override
+    public void readEndOfLine() {
+        skipTillNext('\n', true);
+    }
+
+    @Override
+    public void skipTillNext(int stopChar, boolean stopEndOfLine) {
+        while (this.position < this.length || fill(this.position)) {
+            int letter = get(this.position);
+
+            if ((stopEndOfLine && '\n' == letter) || stopChar == letter) {
+                return;
+            }
+
+            this.position++;
+        }
+    }
+
+    @Override
+    public Number readNumber(int... firstChar) {
+        boolean isDouble = false;
+        mark();
+        int start = this.position;
+        int end = start;
+
+        while (end < this.length || fill(end)) {
+            int letter = get(end);
+
+            if (!Character.isDigit(letter) && '.' != letter) {
+                break;
+            }
+
+            if ('.' == letter) {
+                isDouble = true;
+            }
+
+            end++;
+        }
+
+        this.position = end;
+        String s;
+
+        if (start >= firstChar.length && matchesBefore(start, firstChar)) {
+            s = string(start - firstChar.length, end);
+        } else {
+            StringBuilder builder = new StringBuilder(firstChar.length + end - start);
+
+            for (int c : firstChar) {
+                builder.append((char) c);
+            }
+
+            s = builder.append(string(start, end)).toString();
+        }
+
+        if (isDouble) {
+            return Double.parseDouble(s);
+        } else {
+            return Integer.parseInt(s);
+        }
+    }
+
+    private boolean matchesBefore(int index, int[] chars) {
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] != get(index - chars.length + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public long length() {
+        return this.length;
+    }
+
+    //Whether the data is read from a stream, which can't be sliced nor read backward
+    boolean isStream() {
+        return this.source != null;
+    }
+
+    @Override
+    public ByteArray slice(int from, int to) {
+        if (isStream()) {
+            throw new UnsupportedOperationException("A stream can't be sliced");
+        }
+
+        return new ByteArray(this.buffer.slice(from, to - from), this.charset, this.chars);
+    }
+
+    private int width(int b) {
+        if (b < 0x80 || !this.utf8) {
+            return 1;
+        }
+
+        return Math.max(1, utf8Width(b));
+    }
+
+    private int codePoint(int index, int b, int width) {
+        if (b < 0x80) {
+            return b;
+        }
+
+        if (!this.utf8) {
+            return this.chars[b];
+        }
+
+        if (width == 1 || (index + width > this.length && !fill(index + width - 1))) {
+            return REPLACEMENT;
+        }
+
+        int c = utf8CodePoint(index, b, width);
+
+        return c < 0 ? REPLACEMENT : c;
+    }
+
+    private static int utf8Width(int b) {
+        if (b >= 0xC2 && b <= 0xDF) {
+            return 2;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            return 3;
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            return 4;
+        }
+
+        return 0;
+    }
+
+    private int utf8CodePoint(int index, int b, int width) {
+        int second = get(index + 1);
+
+        if ((second & 0xC0) != 0x80) {
+            return -1;
+        }
+
+        if (width == 2) {
+            return ((b & 0x1F) << 6) | (second & 0x3F);
+        }
+
+        if ((b == 0xE0 && second < 0xA0) || (b == 0xED && second > 0x9F) || (b == 0xF0 && second < 0x90) || (b == 0xF4 && second > 0x8F)) {
+            return -1; //Overlong, surrogate or out of range
+        }
+
+        int third = get(index + 2);
+
+        if ((third & 0xC0) != 0x80) {
+            return -1;
+        }
+
+        if (width == 3) {
+            return ((b & 0x0F) << 12) | ((second & 0x3F) << 6) | (third & 0x3F);
+        }
+
+        int forth = get(index + 3);
+
+        if ((forth & 0xC0) != 0x80) {
+            return -1;
+        }
+
+        return ((b & 0x07) << 18) | ((second & 0x3F) << 12) | ((third & 0x3F) << 6) | (forth & 0x3F);
+    }
+
+    private String string(int start, int end) {
+        int length = end - start;
+
+        if (length <= 0) {
+            return "";
+        }
+
+        if (this.buffer.hasArray()) {
+            return new String(this.buffer.array(), this.buffer.arrayOffset() + start - this.base, length, this.charset);
+        }
+
+        if (this.scratch == null || this.scratch.length < length) {
+            this.scratch = new byte[Math.max(length, 64)];
+        }
+
+        this.buffer.get(start - this.base, this.scratch, 0, length);
+
+        return new String(this.scratch, 0, length, this.charset);
+    }
+}
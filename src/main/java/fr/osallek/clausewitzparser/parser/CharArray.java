@@ -4,10 +4,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 
-public class CharArray {
+public class CharArray implements TextSource {
 
     private final char[] array;
 
@@ -18,8 +20,14 @@ public class CharArray {
     private int mark;
 
     public CharArray(char[] array) {
+        this(array, 0, array.length);
+    }
+
+    private CharArray(char[] array, int from, int to) {
         this.array = array;
-        this.length = array.length;
+        this.length = to;
+        this.position = from;
+        this.mark = from;
     }
 
     public CharArray(File file, Charset charset) throws IOException {
@@ -30,32 +38,43 @@ public class CharArray {
         this(charset.newDecoder().decode(ByteBuffer.wrap(inputStream.readAllBytes())).array());
     }
 
+    public CharArray(ByteBuffer bytes, Charset charset) throws CharacterCodingException {
+        this(charset.newDecoder().decode(bytes.duplicate()).array());
+    }
+
+    @Override
     public void reset() {
         this.position = this.mark;
     }
 
+    @Override
     public void mark() {
         this.mark = this.position;
     }
 
+    @Override
     public int position() {
         return this.position;
     }
 
+    @Override
     public void position(int position) {
         this.position = position;
     }
 
+    @Override
     public void addPosition(int position) {
         this.position += position;
     }
 
+    @Override
     public int available() {
         return this.length - this.position;
     }
 
+    @Override
     public int read() {
-        if (this.length == this.position) {
+        if (this.position >= this.length) {
             return -1;
         }
 
@@ -63,7 +82,7 @@ public class CharArray {
     }
 
     public void read(char[] c, int offset, int length) {
-        if (this.length == this.position) {
+        if (this.position >= this.length) {
             return;
         }
 
@@ -84,6 +103,7 @@ public class CharArray {
         return buffer;
     }
 
+    @Override
     public String readLine() {
         int nb = 0;
         mark();
@@ -109,6 +129,7 @@ public class CharArray {
         }
     }
 
+    @Override
     public void skipLine() {
         mark();
 
@@ -125,6 +146,7 @@ public class CharArray {
         }
     }
 
+    @Override
     public String readQuoted(boolean keepQuotes) {
         int letter;
         int nb = 0;
@@ -147,6 +169,7 @@ public class CharArray {
         return new String(chars);
     }
 
+    @Override
     public String readString(int firstChar) {
         int letter;
         int nb = 0;
@@ -171,6 +194,7 @@ public class CharArray {
         return new String(chars);
     }
 
+    @Override
     public String readStringOrNumber(int firstChar) {
         int letter;
         int nb = 0;
@@ -194,10 +218,12 @@ public class CharArray {
         return new String(chars);
     }
 
+    @Override
     public void readEndOfLine() {
         skipTillNext('\n', true);
     }
 
+    @Override
     public void skipTillNext(int stopChar, boolean stopEndOfLine) {
         int letter;
         boolean eof = true;
@@ -219,6 +245,7 @@ public class CharArray {
         }
     }
 
+    @Override
     public Number readNumber(int... firstChar) {
         int letter;
         boolean isDouble = false;
@@ -248,7 +275,21 @@ public class CharArray {
         }
     }
 
+    @Override
     public long length() {
         return length;
     }
+
+    //Remaining chars encoded back to bytes, for the binary parsers
+    ByteBuffer encode(Charset charset) {
+        ByteBuffer bytes = charset.encode(CharBuffer.wrap(this.array, this.position, Math.max(0, this.length - this.position)));
+        this.position = this.length;
+
+        return bytes;
+    }
+
+    @Override
+    public CharArray slice(int from, int to) {
+        return new CharArray(this.array, from, to);
+    }
 }
@@ -0,0 +1,24 @@
+package fr.osallek.clausewitzparser.parser;
+
+/*
+ * Receives the events of ClausewitzParser.stream(...) without any tree being built. Values are given as they would be stored in the tree (quoted
+ * strings keep their quotes).
+ */
+public interface ClausewitzHandler {
+
+    default void startObject(String name, boolean hasEquals) {
+    }
+
+    default void endObject(String name) {
+    }
+
+    default void variable(String name, String value) {
+    }
+
+    //Element of a list, called before the endObject of the block that holds it
+    default void value(String value) {
+    }
+
+    default void comment(String comment) {
+    }
+}
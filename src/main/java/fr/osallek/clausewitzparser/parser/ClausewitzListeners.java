@@ -0,0 +1,106 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.ClausewitzPObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/*
+ * Listeners called by the parsers when an object is opened. Listeners registered on a name are found with one lookup whatever their number, predicate
+ * listeners are tested on every object and should only be used when the name is not enough. Depth 1 is the top level.
+ */
+public final class ClausewitzListeners {
+
+    public static final int ANY_DEPTH = -1;
+
+    private final Map<String, List<NameListener>> byName = new HashMap<>();
+
+    private final List<Map.Entry<Predicate<ClausewitzPObject>, Consumer<String>>> predicates = new ArrayList<>();
+
+    private boolean hasDepth;
+
+    private record NameListener(int depth, Consumer<String> listener) {}
+
+    public static ClausewitzListeners of(Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
+        ClausewitzListeners clausewitzListeners = new ClausewitzListeners();
+
+        if (listeners != null) {
+            listeners.forEach(clausewitzListeners::on);
+        }
+
+        return clausewitzListeners;
+    }
+
+    public ClausewitzListeners on(String name, Consumer<String> listener) {
+        return on(name, ANY_DEPTH, listener);
+    }
+
+    public ClausewitzListeners on(String name, int depth, Consumer<String> listener) {
+        if (name == null) {
+            throw new NullPointerException("name is null");
+        }
+
+        if (listener == null) {
+            throw new NullPointerException("listener is null");
+        }
+
+        this.byName.computeIfAbsent(name, k -> new ArrayList<>(1)).add(new NameListener(depth, listener));
+        this.hasDepth |= depth != ANY_DEPTH;
+
+        return this;
+    }
+
+    public ClausewitzListeners on(Predicate<ClausewitzPObject> predicate, Consumer<String> listener) {
+        if (predicate == null) {
+            throw new NullPointerException("predicate is null");
+        }
+
+        if (listener == null) {
+            throw new NullPointerException("listener is null");
+        }
+
+        this.predicates.add(Map.entry(predicate, listener));
+
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return this.byName.isEmpty() && this.predicates.isEmpty();
+    }
+
+    void fire(ClausewitzPObject node) {
+        if (!this.byName.isEmpty()) {
+            List<NameListener> listeners = this.byName.get(node.getName());
+
+            if (listeners != null) {
+                int depth = this.hasDepth ? depth(node) : ANY_DEPTH;
+
+                for (NameListener listener : listeners) {
+                    if (listener.depth == ANY_DEPTH || listener.depth == depth) {
+                        listener.listener.accept(node.getName());
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<Predicate<ClausewitzPObject>, Consumer<String>> entry : this.predicates) {
+            if (entry.getKey().test(node)) {
+                entry.getValue().accept(node.getName());
+            }
+        }
+    }
+
+    private static int depth(ClausewitzPObject node) {
+        int depth = 0;
+
+        for (ClausewitzPObject parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+
+        return depth;
+    }
+}
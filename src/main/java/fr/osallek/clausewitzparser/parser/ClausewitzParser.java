@@ -5,28 +5,54 @@ import fr.osallek.clausewitzparser.common.ClausewitzUtils;
 import fr.osallek.clausewitzparser.ic4j.CharsetDetector;
 import fr.osallek.clausewitzparser.model.BinaryToken;
 import fr.osallek.clausewitzparser.model.ClausewitzItem;
+import fr.osallek.clausewitzparser.model.ClausewitzList;
 import fr.osallek.clausewitzparser.model.ClausewitzObject;
 import fr.osallek.clausewitzparser.model.ClausewitzPObject;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+import fr.osallek.clausewitzparser.model.ClausewitzVariable;
+import fr.osallek.clausewitzparser.model.TokenTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.MalformedInputException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -37,41 +63,38 @@ public class ClausewitzParser {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ClausewitzParser.class);
 
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    private static final int CHARSET_PREFIX_SIZE = 1 << 16;
+
+    private static final long DEFAULT_BATCH_BYTES = 1L << 28;
+
+    private static volatile CachedTokenTable cachedTokenTable;
+
+    private record CachedTokenTable(WeakReference<Map<Integer, String>> tokens, int hash, TokenTable table) {}
+
     public static ClausewitzItem parse(File file, int skip) {
         return parse(file, skip, new HashMap<>());
     }
 
     public static ClausewitzItem parse(File file, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
-        try {
-            return parse(file, skip, listeners, StandardCharsets.ISO_8859_1);
-        } catch (ClausewitzParseException e) {
-            if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                try {
-                    return parse(file, skip, listeners, StandardCharsets.UTF_8);
-                } catch (ClausewitzParseException e1) {
-                    try {
-                        if (CharacterCodingException.class.equals(e1.getCause().getClass())) {
-                            return parse(file, skip, listeners, CharsetDetector.detect(new BufferedInputStream(new FileInputStream(file))));
-                        } else {
-                            throw e1;
-                        }
-                    } catch (IOException e2) {
-                        LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e2.getMessage(), e2);
-                        throw e;
-                    }
-                }
-            } else {
-                throw e;
-            }
-        }
+        return parse(file, skip, listeners, null);
     }
 
     public static ClausewitzItem parse(File file, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, Charset charset) {
+        return parse(file, skip, ClausewitzListeners.of(listeners), charset);
+    }
+
+    public static ClausewitzItem parse(File file, int skip, ClausewitzListeners listeners) {
+        return parse(file, skip, listeners, null);
+    }
+
+    public static ClausewitzItem parse(File file, int skip, ClausewitzListeners listeners, Charset charset) {
         ClausewitzItem root;
         Instant start = Instant.now();
 
         try {
-            root = parse(new CharArray(file, charset), skip, listeners);
+            root = parse(open(file, charset), skip, listeners);
         } catch (CharacterCodingException e) {
             throw new ClausewitzParseException(e);
         } catch (IOException e) {
@@ -86,24 +109,111 @@ public class ClausewitzParser {
         return root;
     }
 
-    public static ClausewitzItem parse(ZipFile zipFile, String entryName, int skip) {
-        return parse(zipFile, entryName, skip, new HashMap<>());
+    public static ClausewitzItem parse(File file, int skip, Collection<String> selectors) {
+        return parse(file, skip, selectors, null);
     }
 
-    public static ClausewitzItem parse(ZipFile zipFile, String entryName, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
+    public static ClausewitzItem parse(File file, int skip, Collection<String> selectors, Charset charset) {
+        ClausewitzItem root;
+        Instant start = Instant.now();
+
         try {
-            return parse(zipFile, entryName, skip, listeners, StandardCharsets.ISO_8859_1);
-        } catch (ClausewitzParseException e) {
-            if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                return parse(zipFile, entryName, skip, listeners, StandardCharsets.UTF_8);
-            } else {
-                throw e;
+            root = parse(ClausewitzReader.of(open(file, charset), skip), selectors);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to read {} of {}: {}ms !", selectors, file.getName(), Duration.between(start, Instant.now()).toMillis());
+        }
+
+        return root;
+    }
+
+    //Only builds the objects whose path matches one of the selectors (like countries/*/ledger, * being any name) and their parents, the other
+    //objects are skipped by the cursor without being read
+    public static ClausewitzItem parse(ClausewitzReader reader, Collection<String> selectors) {
+        PathSelector selector = new PathSelector(selectors);
+        ClausewitzItem root = new ClausewitzItem();
+        ClausewitzItem currentNode = root;
+        List<String> names = new ArrayList<>(); //Path of currentNode
+        List<Boolean> full = new ArrayList<>(); //Whether each node of the path is kept whole
+        List<List<String>> values = new ArrayList<>(); //Values of the lists of each node of the path
+        ClausewitzReader.Token token;
+
+        while ((token = reader.next()) != ClausewitzReader.Token.END_DOCUMENT) {
+            boolean inFull = !full.isEmpty() && full.getLast();
+
+            switch (token) {
+                case START_OBJECT -> {
+                    PathSelector.Match match = inFull ? PathSelector.Match.FULL : selector.match(names, reader.name());
+
+                    if (PathSelector.Match.NONE == match) {
+                        reader.skipValue();
+                        continue;
+                    }
+
+                    checkInterrupted();
+                    currentNode = currentNode.addChild(reader.name(), reader.hasEquals());
+                    names.add(reader.name());
+                    full.add(PathSelector.Match.FULL == match);
+                    values.add(new ArrayList<>());
+                }
+                case END_OBJECT -> {
+                    List<String> strings = values.removeLast();
+                    names.removeLast();
+                    boolean wasFull = full.removeLast();
+                    ClausewitzItem parent = currentNode.getParent();
+                    int nbNewLine = reader.newLines(); //Same rules as readObject, lists of binary files are on the same line
+
+                    if (!wasFull && currentNode.getAllOrderedView().isEmpty()) { //Nothing matched inside
+                        parent.removeChild(currentNode);
+                    } else if (!strings.isEmpty()) {
+                        if (currentNode.getAllOrderedView().isEmpty()) {
+                            parent.changeChildToList(currentNode.getOrder(), currentNode.getName(), strings.size() > 1 && nbNewLine <= 2, strings);
+                        } else {
+                            currentNode.addList("", strings.size() > 1 && nbNewLine <= currentNode.getNbObjects() * 2 + 2, false, strings);
+                        }
+                    } else if (nbNewLine >= 0 && nbNewLine <= 2 && currentNode.getNbChildren() == 0 && currentNode.getNbLists() == 0 &&
+                               currentNode.getNbVariables() > 1) {
+                        currentNode.setSameLine(true);
+                    }
+
+                    currentNode = parent;
+                }
+                case VARIABLE -> {
+                    if (inFull || PathSelector.Match.FULL == selector.match(names, reader.name())) {
+                        currentNode.addVariable(reader.name(), reader.value());
+                    }
+                }
+                case VALUE -> {
+                    if (inFull) {
+                        values.getLast().add(reader.value());
+                    }
+                }
             }
         }
+
+        return root;
+    }
+
+    public static ClausewitzItem parse(ZipFile zipFile, String entryName, int skip) {
+        return parse(zipFile, entryName, skip, new HashMap<>());
+    }
+
+    public static ClausewitzItem parse(ZipFile zipFile, String entryName, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
+        return parse(zipFile, entryName, skip, listeners, null);
     }
 
     public static ClausewitzItem parse(ZipFile zipFile, String entryName, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners,
                                        Charset charset) {
+        return parse(zipFile, entryName, skip, ClausewitzListeners.of(listeners), charset);
+    }
+
+    public static ClausewitzItem parse(ZipFile zipFile, String entryName, int skip, ClausewitzListeners listeners, Charset charset) {
         ClausewitzItem root = null;
         Instant start = Instant.now();
 
@@ -118,8 +228,8 @@ public class ClausewitzParser {
             throw new NullPointerException("No entry");
         }
 
-        try (InputStream stream = zipFile.getInputStream(zipEntry)) {
-            root = parse(new CharArray(stream, charset), skip, listeners);
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry)) {
+            root = parse(open(stream, charset), skip, listeners);
         } catch (CharacterCodingException e) {
             throw new ClausewitzParseException(e);
         } catch (IOException e) {
@@ -133,54 +243,100 @@ public class ClausewitzParser {
         return root;
     }
 
-    private static ClausewitzItem parse(CharArray reader, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
-        for (int i = 1; i <= skip; i++) {
-            reader.skipLine();
-        }
+    public static CompletableFuture<ClausewitzItem> parseAsync(File file, int skip) {
+        return parseAsync(file, skip, new ClausewitzListeners(), null, ParseFuture.VIRTUAL_THREADS);
+    }
 
-        ClausewitzItem root = new ClausewitzItem();
-        readObject(root, reader, listeners, false);
+    //Runs on the executor, cancelling the future stops the parse at the next object
+    public static CompletableFuture<ClausewitzItem> parseAsync(File file, int skip, ClausewitzListeners listeners, Charset charset, Executor executor) {
+        return ParseFuture.supply(() -> parse(file, skip, listeners, charset), executor);
+    }
 
-        return root;
+    public static CompletableFuture<ClausewitzItem> parseAsync(ZipFile zipFile, String entryName, int skip) {
+        return parseAsync(zipFile, entryName, skip, new ClausewitzListeners(), null, ParseFuture.VIRTUAL_THREADS);
     }
 
-    public static ClausewitzObject readSingleObject(File file, int skip, String objectName) {
-        try {
-            return readSingleObject(file, skip, objectName, StandardCharsets.ISO_8859_1);
-        } catch (ClausewitzParseException e) {
-            if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                return readSingleObject(file, skip, objectName, StandardCharsets.UTF_8);
-            } else {
-                throw e;
-            }
+    public static CompletableFuture<ClausewitzItem> parseAsync(ZipFile zipFile, String entryName, int skip, ClausewitzListeners listeners, Charset charset,
+                                                             Executor executor) {
+        return ParseFuture.supply(() -> parse(zipFile, entryName, skip, listeners, charset), executor);
+    }
+
+    public static Map<String, ClausewitzItem> parseAll(ZipFile zipFile, int skip) {
+        return parseAll(zipFile, skip, new ClausewitzListeners(), null);
+    }
+
+    public static Map<String, ClausewitzItem> parseAll(ZipFile zipFile, int skip, ClausewitzListeners listeners, Charset charset) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return parseAll(zipFile, skip, listeners, charset, executor);
         }
     }
 
-    public static ClausewitzObject findFirstSingleObject(File file, int skip, List<String> objectNames) {
+    //All the entries are parsed at the same time, listeners are called from the executor threads
+    public static Map<String, ClausewitzItem> parseAll(ZipFile zipFile, int skip, ClausewitzListeners listeners, Charset charset, Executor executor) {
+        return readAll(zipFile, executor, entryName -> parse(zipFile, entryName, skip, listeners, charset));
+    }
+
+    //Entries by name in the order of the zip. The biggest ones are started first so they don't finish last when the executor is bounded
+    private static Map<String, ClausewitzItem> readAll(ZipFile zipFile, Executor executor, Function<String, ClausewitzItem> reader) {
+        if (zipFile == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        if (executor == null) {
+            throw new NullPointerException("executor is null");
+        }
+
+        Instant start = Instant.now();
+        List<? extends ZipEntry> entries = zipFile.stream().filter(Predicate.not(ZipEntry::isDirectory)).toList();
+        Map<String, CompletableFuture<ClausewitzItem>> futures = new HashMap<>();
+
+        entries.stream()
+               .sorted(Comparator.comparingLong(ZipEntry::getSize).reversed())
+               .forEach(entry -> futures.put(entry.getName(), ParseFuture.supply(() -> reader.apply(entry.getName()), executor)));
+
+        Map<String, ClausewitzItem> items = new LinkedHashMap<>();
+
         try {
-            return findFirstSingleObject(file, skip, objectNames, StandardCharsets.ISO_8859_1);
-        } catch (ClausewitzParseException e) {
-            if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                return findFirstSingleObject(file, skip, objectNames, StandardCharsets.UTF_8);
-            } else {
-                throw e;
+            for (ZipEntry entry : entries) {
+                items.put(entry.getName(), futures.get(entry.getName()).join());
             }
+        } catch (CompletionException e) {
+            futures.values().forEach(future -> future.cancel(true)); //Interrupts the parses still running
+
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw new ClausewitzParseException(e.getCause());
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to read {} entries of {}: {}ms !", entries.size(), zipFile.getName(), Duration.between(start, Instant.now()).toMillis());
         }
+
+        return items;
     }
 
-    public static ClausewitzObject readSingleObject(File file, int skip, String objectName, Charset charset) {
-        return findFirstSingleObject(file, skip, List.of(objectName), charset);
+    public static ClausewitzItem parseParallel(File file, int skip) {
+        return parseParallel(file, skip, new HashMap<>());
     }
 
-    public static ClausewitzObject findFirstSingleObject(File file, int skip, List<String> objectNames, Charset charset) {
-        if (objectNames == null) {
-            throw new NullPointerException("objectName is null");
-        }
+    //Listeners are called from the pool threads, in no particular order
+    public static ClausewitzItem parseParallel(File file, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
+        return parseParallel(file, skip, listeners, null, ForkJoinPool.commonPool());
+    }
 
-        ClausewitzItem root = new ClausewitzItem();
+    public static ClausewitzItem parseParallel(File file, int skip, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, Charset charset,
+                                               ForkJoinPool pool) {
+        return parseParallel(file, skip, ClausewitzListeners.of(listeners), charset, pool);
+    }
+
+    public static ClausewitzItem parseParallel(File file, int skip, ClausewitzListeners listeners, Charset charset, ForkJoinPool pool) {
+        ClausewitzItem root;
+        Instant start = Instant.now();
 
         try {
-            readSingleObject(new CharArray(file, charset), skip, root, objectNames);
+            root = parseParallel(open(file, charset), skip, listeners, pool);
         } catch (CharacterCodingException e) {
             throw new ClausewitzParseException(e);
         } catch (IOException e) {
@@ -188,63 +344,817 @@ public class ClausewitzParser {
             throw new ClausewitzParseException(e);
         }
 
-        return root.isEmpty() ? null : root.getAllOrdered().getFirst();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to read {} in parallel: {}ms !", file.getName(), Duration.between(start, Instant.now()).toMillis());
+        }
+
+        return root;
     }
 
-    public static ClausewitzObject readSingleObjectBinary(ZipFile zipFile, String entryName, int skip, String objectName, Charset charset,
-                                                          Map<Integer, String> tokens) {
-        return readSingleObjectBinary(zipFile, entryName, skip, List.of(objectName), charset, tokens);
+    public static BatchResult parseAll(Path directory, String glob, int skip) {
+        return parseAll(directory, glob, skip, null, ForkJoinPool.commonPool(), DEFAULT_BATCH_BYTES);
     }
 
-    public static ClausewitzObject readSingleObjectBinary(ZipFile zipFile, String entryName, int skip, List<String> objectNames, Charset charset,
-                                                          Map<Integer, String> tokens) {
-        if (objectNames == null) {
-            throw new NullPointerException("objectName is null");
+    //Parses the files of the directory tree matching the glob (relative to the directory, all files if null) on the pool. Files are only started while
+    //the size of those being parsed is under maxBytes, a bigger file is parsed alone. Errors of a file are kept in the result instead of being thrown
+    public static BatchResult parseAll(Path directory, String glob, int skip, Charset charset, ForkJoinPool pool, long maxBytes) {
+        if (directory == null) {
+            throw new NullPointerException("directory is null");
         }
 
-        if (zipFile == null) {
-            throw new NullPointerException("zipFile null");
+        if (pool == null) {
+            throw new NullPointerException("pool is null");
         }
 
-        ZipEntry zipEntry = zipFile.getEntry(entryName);
-        if (zipEntry == null) {
-            throw new NullPointerException("zipFile null");
-        }
+        Instant start = Instant.now();
+        PathMatcher matcher = glob == null ? null : directory.getFileSystem().getPathMatcher("glob:" + glob);
+        List<Path> paths;
 
-        try (InputStream stream = zipFile.getInputStream(zipEntry)) {
-            return convertBinary(new CharArray(stream, charset), charset, skip, tokens, objectNames, new HashMap<>());
-        } catch (CharacterCodingException e) {
-            throw new ClausewitzParseException(e);
+        try (Stream<Path> stream = Files.walk(directory)) {
+            paths = stream.filter(Files::isRegularFile).filter(path -> matcher == null || matcher.matches(directory.relativize(path))).sorted().toList();
         } catch (IOException e) {
-            LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", zipEntry.getName(), zipFile.getName(), e.getMessage(), e);
+            LOGGER.error("An error occurred while trying to list directory {}: {} !", directory, e.getMessage(), e);
             throw new ClausewitzParseException(e);
         }
-    }
 
-    public static ClausewitzObject readSingleObject(ZipFile zipFile, String entryName, int skip, String objectName) {
-        try {
-            return readSingleObject(zipFile, entryName, skip, List.of(objectName), StandardCharsets.ISO_8859_1);
-        } catch (ClausewitzParseException e) {
-            if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                return readSingleObject(zipFile, entryName, skip, List.of(objectName), StandardCharsets.UTF_8);
+        ClausewitzItem[] items = new ClausewitzItem[paths.size()];
+        RuntimeException[] errors = new RuntimeException[paths.size()];
+        InFlightBytes inFlight = new InFlightBytes(maxBytes);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(paths.size());
+
+        for (int i = 0; i < paths.size(); i++) {
+            int index = i;
+            File file = paths.get(i).toFile();
+            long size = file.length();
+            inFlight.acquire(size);
+
+            tasks.add(pool.submit(() -> {
+                try {
+                    items[index] = parse(file, skip, new ClausewitzListeners(), charset);
+                } catch (RuntimeException e) {
+                    errors[index] = e;
+                } finally {
+                    inFlight.release(size);
+                }
+            }));
+        }
+
+        tasks.forEach(ForkJoinTask::join);
+
+        Map<Path, ClausewitzItem> parsed = new LinkedHashMap<>();
+        Map<Path, RuntimeException> failed = new LinkedHashMap<>();
+
+        for (int i = 0; i < paths.size(); i++) {
+            if (errors[i] != null) {
+                failed.put(paths.get(i), errors[i]);
             } else {
-                throw e;
+                parsed.put(paths.get(i), items[i]);
             }
         }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to read {} files of {}: {}ms !", paths.size(), directory, Duration.between(start, Instant.now()).toMillis());
+        }
+
+        return new BatchResult(parsed, failed);
     }
 
-    public static ClausewitzObject findFirstSingleObject(ZipFile zipFile, String entryName, int skip, List<String> objectNames) {
-        try {
-            return readSingleObject(zipFile, entryName, skip, objectNames, StandardCharsets.ISO_8859_1);
-        } catch (ClausewitzParseException e) {
-            if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                return readSingleObject(zipFile, entryName, skip, objectNames, StandardCharsets.UTF_8);
-            } else {
-                throw e;
+    //Bytes of the files being parsed, the submitting thread waits so the pool threads are never blocked
+    private static final class InFlightBytes {
+
+        private final long max;
+
+        private long current;
+
+        private InFlightBytes(long max) {
+            this.max = max;
+        }
+
+        private synchronized void acquire(long size) {
+            while (this.current > 0 && this.current + size > this.max) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ClausewitzParseException(e);
+                }
+            }
+
+            this.current += size;
+        }
+
+        private synchronized void release(long size) {
+            this.current -= size;
+            notifyAll();
+        }
+    }
+
+    private static ClausewitzItem parseParallel(TextSource reader, int skip, ClausewitzListeners listeners, ForkJoinPool pool) {
+        for (int i = 1; i <= skip; i++) {
+            reader.skipLine();
+        }
+
+        int chunkSize = (int) Math.max(MIN_CHUNK_SIZE, reader.length() / (pool.getParallelism() * 4L));
+
+        return parseChunks(splitTopLevel(reader, chunkSize), pool, (from, to) -> {
+            ClausewitzItem item = new ClausewitzItem();
+            readObject(item, reader.slice(from, to), listeners, false);
+            return item;
+        });
+    }
+
+    //Parses each [cuts[i], cuts[i + 1]) range on the pool and moves the results into one root, in order
+    private static ClausewitzItem parseChunks(List<Integer> cuts, ForkJoinPool pool, BiFunction<Integer, Integer, ClausewitzItem> parser) {
+        if (cuts.size() <= 2) {
+            return parser.apply(cuts.getFirst(), cuts.getLast());
+        }
+
+        List<ForkJoinTask<ClausewitzItem>> tasks = new ArrayList<>(cuts.size() - 1);
+
+        for (int i = 0; i < cuts.size() - 1; i++) {
+            int from = cuts.get(i);
+            int to = cuts.get(i + 1);
+            tasks.add(pool.submit(() -> parser.apply(from, to)));
+        }
+
+        ClausewitzItem root = new ClausewitzItem();
+
+        for (ForkJoinTask<ClausewitzItem> task : tasks) {
+            root.moveAll(task.join());
+        }
+
+        return root;
+    }
+
+    /*
+     * Positions where the root can be cut so that each part parses as the root would: after a top level block that is not preceded by a pending
+     * key or list value. Braces inside quotes and comments are ignored. First element is the current position, last is where readObject would stop.
+     */
+    private static List<Integer> splitTopLevel(TextSource reader, int chunkSize) {
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(reader.position());
+
+        int depth = 0;
+        int pending = 0; //Strings readObject would hold at the root
+        boolean isEquals = false;
+        int letter;
+
+        while ((letter = reader.read()) > 0) {
+            if (letter == ' ' || letter == '\t' || letter == '\r' || letter == '\n') {
+                continue;
             }
+
+            if ('#' == letter) {
+                reader.skipTillNext('\n', true);
+                continue;
+            }
+
+            if ('{' == letter) {
+                if (depth == 0) {
+                    pending = Math.max(0, pending - 1);
+                    isEquals = false;
+                }
+
+                depth++;
+                continue;
+            }
+
+            if ('}' == letter) {
+                if (depth == 0) { //readObject stops at a stray closing brace
+                    break;
+                }
+
+                depth--;
+
+                if (depth == 0 && pending == 0 && reader.position() - cuts.getLast() >= chunkSize) {
+                    cuts.add(reader.position());
+                }
+
+                continue;
+            }
+
+            if ('"' == letter) {
+                reader.skipTillNext('"', false);
+                reader.read();
+            } else if ('=' == letter) {
+                if (depth == 0) {
+                    isEquals = true;
+                }
+
+                continue;
+            } else if (depth == 0) {
+                skipToken(reader);
+            }
+
+            if (depth == 0) {
+                if (isEquals) { //Value
+                    isEquals = false;
+                    pending = 0;
+                } else { //Key
+                    pending++;
+                }
+            }
+        }
+
+        if (reader.position() > cuts.getLast()) {
+            cuts.add(reader.position());
+        }
+
+        reader.position(cuts.getFirst());
+
+        return cuts;
+    }
+
+    private static void skipToken(TextSource reader) {
+        int letter;
+
+        while ((letter = reader.read()) >= 0) {
+            if (0 == letter || Character.isWhitespace(letter) || '=' == letter || '{' == letter || '}' == letter || '"' == letter || '#' == letter) {
+                reader.addPosition(-1);
+                return;
+            }
+        }
+    }
+
+    public static ClausewitzReader reader(File file, int skip) {
+        return reader(file, skip, null);
+    }
+
+    public static ClausewitzReader reader(File file, int skip, Charset charset) {
+        try {
+            return ClausewitzReader.of(open(file, charset), skip);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
         }
     }
 
+    public static void stream(File file, int skip, ClausewitzHandler handler) {
+        stream(file, skip, handler, null);
+    }
+
+    public static void stream(File file, int skip, ClausewitzHandler handler, Charset charset) {
+        Instant start = Instant.now();
+
+        try {
+            stream(open(file, charset), skip, handler);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to stream {}: {}ms !", file.getName(), Duration.between(start, Instant.now()).toMillis());
+        }
+    }
+
+    public static void stream(ZipFile zipFile, String entryName, int skip, ClausewitzHandler handler) {
+        stream(zipFile, entryName, skip, handler, null);
+    }
+
+    public static void stream(ZipFile zipFile, String entryName, int skip, ClausewitzHandler handler, Charset charset) {
+        Instant start = Instant.now();
+
+        if (zipFile == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        ZipEntry zipEntry = zipFile.getEntry(entryName);
+
+        if (zipEntry == null) {
+            LOGGER.error("Can''t find entry {} in file {} !", entryName, zipFile.getName());
+            throw new NullPointerException("No entry");
+        }
+
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry)) {
+            stream(open(stream, charset), skip, handler);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", zipEntry.getName(), zipFile.getName(), e.getMessage(), e);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to stream entry {} of {}: {}ms !", zipEntry, zipFile.getName(), Duration.between(start, Instant.now()).toMillis());
+        }
+    }
+
+    public static void stream(TextSource reader, int skip, ClausewitzHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("handler is null");
+        }
+
+        for (int i = 1; i <= skip; i++) {
+            reader.skipLine();
+        }
+
+        streamObject(reader, handler, null);
+    }
+
+    private static ClausewitzItem parse(TextSource reader, int skip, ClausewitzListeners listeners) {
+        for (int i = 1; i <= skip; i++) {
+            reader.skipLine();
+        }
+
+        ClausewitzItem root = new ClausewitzItem();
+        readObject(root, reader, listeners, false);
+
+        return root;
+    }
+
+    private static TextSource open(File file, Charset charset) throws IOException {
+        if (charset != null) {
+            return TextSource.of(file, charset);
+        }
+
+        ByteBuffer bytes = ByteArray.read(file);
+
+        return TextSource.of(bytes, resolveCharset(bytes));
+    }
+
+    //Streams are parsed while they are read. The charset is resolved, or checked, on the first bytes only
+    private static TextSource open(InputStream stream, Charset charset) throws IOException {
+        if (charset != null && !ByteArray.supports(charset)) {
+            ByteBuffer bytes = ByteBuffer.wrap(stream.readAllBytes());
+
+            if (!CharsetDetector.canDecode(bytes, charset)) {
+                throw new MalformedInputException(1);
+            }
+
+            return TextSource.of(bytes, charset);
+        }
+
+        byte[] head = stream.readNBytes(CHARSET_PREFIX_SIZE);
+        ByteBuffer prefix = ByteBuffer.wrap(head, 0, lastLineEnd(head));
+
+        if (charset == null) {
+            charset = resolveCharset(prefix);
+        } else if (!CharsetDetector.canDecode(prefix, charset)) {
+            throw new MalformedInputException(1);
+        }
+
+        return ByteArray.stream(new SequenceInputStream(new ByteArrayInputStream(head), stream), charset);
+    }
+
+    //So the prefix does not end in the middle of a multi bytes char
+    private static int lastLineEnd(byte[] head) {
+        if (head.length < CHARSET_PREFIX_SIZE) {
+            return head.length;
+        }
+
+        for (int i = head.length - 1; i >= 0; i--) {
+            if (head[i] == '\n') {
+                return i + 1;
+            }
+        }
+
+        return head.length;
+    }
+
+    private static Charset resolveCharset(ByteBuffer bytes) {
+        return CharsetDetector.resolve(bytes, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8);
+    }
+
+    public static ClausewitzObject readSingleObject(File file, int skip, String objectName) {
+        return readSingleObject(file, skip, objectName, null);
+    }
+
+    public static ClausewitzObject findFirstSingleObject(File file, int skip, List<String> objectNames) {
+        return findFirstSingleObject(file, skip, objectNames, null);
+    }
+
+    public static ClausewitzObject readSingleObject(File file, int skip, String objectName, Charset charset) {
+        return findFirstSingleObject(file, skip, List.of(objectName), charset);
+    }
+
+    public static ClausewitzObject findFirstSingleObject(File file, int skip, List<String> objectNames, Charset charset) {
+        if (objectNames == null) {
+            throw new NullPointerException("objectName is null");
+        }
+
+        ClausewitzItem root = new ClausewitzItem();
+
+        try {
+            readSingleObject(open(file, charset), skip, root, objectNames);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+
+        return root.isEmpty() ? null : root.getAllOrderedView().getFirst();
+    }
+
+    public static ClausewitzObject readSingleObject(File file, String objectName, TextKeyIndex index) {
+        return findFirstSingleObject(file, List.of(objectName), index);
+    }
+
+    //Seeks to the first top level object of the index with one of the names, exact names only
+    public static ClausewitzObject findFirstSingleObject(File file, List<String> objectNames, TextKeyIndex index) {
+        if (objectNames == null) {
+            throw new NullPointerException("objectName is null");
+        }
+
+        if (index == null) {
+            throw new NullPointerException("index is null");
+        }
+
+        //The positions of an index of another content would be read as objects
+        if (!index.isValidFor(file)) {
+            throw new IllegalArgumentException("Index is not valid for file " + file.getAbsolutePath());
+        }
+
+        int position = index.first(objectNames);
+
+        if (position < 0) {
+            return null;
+        }
+
+        ClausewitzItem root = new ClausewitzItem();
+
+        try {
+            TextSource reader = TextSource.of(file, index.charset());
+            reader.position(position);
+            readObject(root, reader, new ClausewitzListeners(), true);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+
+        return root.isEmpty() ? null : root.getAllOrderedView().getFirst();
+    }
+
+    public static ClausewitzObject readSingleObject(ZipFile zipFile, String objectName, TextKeyIndex index, InflateIndex checkpoints) {
+        return findFirstSingleObject(zipFile, List.of(objectName), index, checkpoints);
+    }
+
+    //Seeks in the inflated entry of the checkpoints, only inflates from the checkpoint before the object
+    public static ClausewitzObject findFirstSingleObject(ZipFile zipFile, List<String> objectNames, TextKeyIndex index, InflateIndex checkpoints) {
+        if (zipFile == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        if (objectNames == null) {
+            throw new NullPointerException("objectName is null");
+        }
+
+        if (index == null) {
+            throw new NullPointerException("index is null");
+        }
+
+        if (checkpoints == null) {
+            throw new NullPointerException("checkpoints is null");
+        }
+
+        ZipEntry zipEntry = zipFile.getEntry(checkpoints.entryName());
+
+        if (zipEntry == null || !index.isValidFor(zipEntry) || !checkpoints.isValidFor(zipFile)) {
+            throw new IllegalArgumentException("Index is not valid for entry " + checkpoints.entryName() + " of file " + zipFile.getName());
+        }
+
+        int position = index.first(objectNames);
+
+        if (position < 0) {
+            return null;
+        }
+
+        ClausewitzItem root = new ClausewitzItem();
+
+        try (InputStream stream = checkpoints.open(zipFile, position)) {
+            readObject(root, ByteArray.stream(stream, index.charset()), new ClausewitzListeners(), true);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", checkpoints.entryName(), zipFile.getName(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+
+        return root.isEmpty() ? null : root.getAllOrderedView().getFirst();
+    }
+
+    public static TextKeyIndex index(File file, int skip) {
+        return index(file, skip, null);
+    }
+
+    public static TextKeyIndex index(File file, int skip, Charset charset) {
+        try {
+            ByteBuffer bytes = ByteArray.read(file);
+
+            if (charset == null) {
+                charset = resolveCharset(bytes);
+            }
+
+            TextSource reader = TextSource.of(bytes, charset);
+
+            for (int i = 1; i <= skip; i++) {
+                reader.skipLine();
+            }
+
+            return new TextKeyIndex(charset, file.length(), file.lastModified(), indexTopLevel(reader));
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    //Positions are in bytes of the inflated entry, to be used with an InflateIndex of the same entry
+    public static TextKeyIndex index(ZipFile zipFile, String entryName, int skip, Charset charset) {
+        if (zipFile == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        ZipEntry zipEntry = zipFile.getEntry(entryName);
+
+        if (zipEntry == null) {
+            LOGGER.error("Can't find entry {} in file {}!", entryName, zipFile.getName());
+            throw new NullPointerException("No entry");
+        }
+
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry)) {
+            if (!(open(stream, charset) instanceof ByteArray reader)) {
+                throw new IllegalArgumentException("Charset " + charset + " is not supported by " + ByteArray.class.getSimpleName());
+            }
+
+            for (int i = 1; i <= skip; i++) {
+                reader.skipLine();
+            }
+
+            return new TextKeyIndex(reader.charset(), zipEntry.getSize(), zipEntry.getTime(), indexTopLevel(reader));
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", zipEntry.getName(), zipFile.getName(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    //Reads the index saved next to the file if it is still valid, else builds it and saves it next to the file
+    public static TextKeyIndex indexWithSidecar(File file, int skip, Charset charset) {
+        File sidecar = TextKeyIndex.sidecar(file);
+
+        if (sidecar.exists()) {
+            try {
+                TextKeyIndex index = TextKeyIndex.read(sidecar);
+
+                if (index.isValidFor(file) && (charset == null || charset.equals(index.charset()))) {
+                    return index;
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not read index {}: {} !", sidecar.getAbsolutePath(), e.getMessage());
+            }
+        }
+
+        TextKeyIndex index = index(file, skip, charset);
+
+        try {
+            index.write(sidecar);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write index {}: {} !", sidecar.getAbsolutePath(), e.getMessage());
+        }
+
+        return index;
+    }
+
+    //Same walk as splitTopLevel, keeps the position of the keys followed by = or {
+    private static Map<String, List<Integer>> indexTopLevel(TextSource reader) {
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int depth = 0;
+        boolean isEquals = false;
+        String key = null;
+        int keyPosition = 0;
+        int position = reader.position();
+        int letter;
+
+        for (; (letter = reader.read()) > 0; position = reader.position()) {
+            if (letter == ' ' || letter == '\t' || letter == '\r' || letter == '\n') {
+                continue;
+            }
+
+            if ('#' == letter) {
+                reader.skipTillNext('\n', true);
+                continue;
+            }
+
+            if ('{' == letter) {
+                if (depth == 0 && key != null) {
+                    positions.computeIfAbsent(key, k -> new ArrayList<>(1)).add(keyPosition);
+                    key = null;
+                    isEquals = false;
+                }
+
+                depth++;
+                continue;
+            }
+
+            if ('}' == letter) {
+                if (depth == 0) { //readObject stops at a stray closing brace
+                    break;
+                }
+
+                depth--;
+                continue;
+            }
+
+            if (depth > 0) {
+                if ('"' == letter) {
+                    reader.skipTillNext('"', false);
+                    reader.read();
+                }
+
+                continue;
+            }
+
+            if ('=' == letter) {
+                isEquals = true;
+                continue;
+            }
+
+            if (isEquals && key != null) { //Value
+                positions.computeIfAbsent(key, k -> new ArrayList<>(1)).add(keyPosition);
+                key = null;
+                isEquals = false;
+
+                if ('"' == letter) {
+                    reader.skipTillNext('"', false);
+                    reader.read();
+                } else {
+                    skipToken(reader);
+                }
+            } else {
+                key = '"' == letter ? reader.readQuoted(true).trim() : reader.readStringOrNumber(letter);
+                keyPosition = position;
+                isEquals = false;
+            }
+        }
+
+        return positions;
+    }
+
+    public static ClausewitzObject readSingleObjectBinary(ZipFile zipFile, String entryName, int skip, String objectName, Charset charset,
+                                                          Map<Integer, String> tokens) {
+        return readSingleObjectBinary(zipFile, entryName, skip, List.of(objectName), charset, tokens);
+    }
+
+    public static ClausewitzObject readSingleObjectBinary(ZipFile zipFile, String entryName, int skip, List<String> objectNames, Charset charset,
+                                                          Map<Integer, String> tokens) {
+        return readSingleObjectBinary(zipFile, entryName, skip, objectNames, charset, tokenTable(tokens));
+    }
+
+    public static ClausewitzObject readSingleObjectBinary(ZipFile zipFile, String entryName, int skip, String objectName, Charset charset,
+                                                          TokenTable tokens) {
+        return readSingleObjectBinary(zipFile, entryName, skip, List.of(objectName), charset, tokens);
+    }
+
+    public static ClausewitzObject readSingleObjectBinary(ZipFile zipFile, String entryName, int skip, List<String> objectNames, Charset charset,
+                                                          TokenTable tokens) {
+        if (objectNames == null) {
+            throw new NullPointerException("objectName is null");
+        }
+
+        if (zipFile == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        ZipEntry zipEntry = zipFile.getEntry(entryName);
+        if (zipEntry == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry)) { //Read whole, the object found is converted from a slice
+            return readSingleObjectBinary(ByteArray.binary(ByteBuffer.wrap(stream.readAllBytes()), charset), skip, objectNames, tokens);
+        } catch (CharacterCodingException e) {
+            throw new ClausewitzParseException(e);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", zipEntry.getName(), zipFile.getName(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    public static ClausewitzObject readSingleObjectBinary(File file, int skip, String objectName, Charset charset, TokenTable tokens) {
+        return readSingleObjectBinary(file, skip, List.of(objectName), charset, tokens);
+    }
+
+    public static ClausewitzObject readSingleObjectBinary(File file, int skip, List<String> objectNames, Charset charset, TokenTable tokens) {
+        if (objectNames == null) {
+            throw new NullPointerException("objectName is null");
+        }
+
+        try {
+            return readSingleObjectBinary(ByteArray.binary(file, charset), skip, objectNames, tokens);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    //Top level objects that do not match are skipped using only the widths of the tokens, only the matching one is converted. Objects that are not
+    //at the top level are still found by a full conversion, when nothing matched at the top level. The reader can't be a stream, it is read backward
+    public static ClausewitzObject readSingleObjectBinary(ByteArray reader, int skip, List<String> objectNames, TokenTable tokens) {
+        if (reader.isStream()) {
+            throw new IllegalArgumentException("A stream can't be read by readSingleObjectBinary, use convertBinary with objectNames");
+        }
+
+        int start = reader.position();
+        reader.addPosition(skip); //Skip leader XXXbin
+
+        int token;
+        while ((token = readToken(reader)) >= 0) {
+            BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+            if (BinaryToken.OPEN == binaryToken) {
+                skipBinaryObject(reader);
+                continue;
+            }
+
+            if (BinaryToken.EQUALS == binaryToken || BinaryToken.END == binaryToken) { //Stray END
+                continue;
+            }
+
+            int keyStart = reader.position() - Short.BYTES;
+            int keyPosition = reader.position();
+
+            if (binaryToken != null) {
+                skipBinaryValue(reader, binaryToken);
+            }
+
+            int afterKey = reader.position();
+            int next = readToken(reader);
+
+            if (BinaryToken.EQUALS.token == next) {
+                next = readToken(reader);
+            } else if (BinaryToken.OPEN.token != next) { //Value of a top level list
+                reader.position(afterKey);
+                continue;
+            }
+
+            if (BinaryToken.OPEN.token == next) {
+                skipBinaryObject(reader);
+            } else if (next >= 0) {
+                BinaryToken valueToken = BinaryToken.ofToken(next);
+
+                if (valueToken != null) {
+                    skipBinaryValue(reader, valueToken);
+                }
+            }
+
+            if (objectNames.contains(binaryKey(reader, token, binaryToken, keyPosition, tokens))) {
+                ClausewitzItem root = (ClausewitzItem) convertBinary(reader.slice(keyStart, reader.position()), 0, tokens, null, new HashMap<>());
+
+                return root.getAllOrderedView().getFirst();
+            }
+        }
+
+        reader.position(start);
+
+        return convertBinary(reader, skip, tokens, objectNames, new HashMap<>());
+    }
+
+    private static String binaryKey(ByteArray reader, int token, BinaryToken binaryToken, int position, TokenTable tokens) {
+        if (binaryToken == null) {
+            return readTokenString(token, tokens, reader.charset());
+        }
+
+        int current = reader.position();
+        reader.position(position);
+        String key = readBinaryValue(reader, binaryToken);
+        reader.position(current);
+
+        return key;
+    }
+
+    //Moves after the END of the object whose OPEN was just read
+    private static void skipBinaryObject(ByteArray reader) {
+        int level = 1;
+        int token;
+
+        while (level > 0 && (token = readToken(reader)) >= 0) {
+            BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+            if (BinaryToken.OPEN == binaryToken) {
+                level++;
+            } else if (BinaryToken.END == binaryToken) {
+                level--;
+            } else if (binaryToken != null) {
+                skipBinaryValue(reader, binaryToken);
+            }
+        }
+    }
+
+    public static ClausewitzObject readSingleObject(ZipFile zipFile, String entryName, int skip, String objectName) {
+        return readSingleObject(zipFile, entryName, skip, List.of(objectName), null);
+    }
+
+    public static ClausewitzObject findFirstSingleObject(ZipFile zipFile, String entryName, int skip, List<String> objectNames) {
+        return readSingleObject(zipFile, entryName, skip, objectNames, null);
+    }
+
     private static ClausewitzObject readSingleObject(ZipFile zipFile, String entryName, int skip, List<String> objectNames, Charset charset) {
         if (objectNames == null) {
             throw new NullPointerException("objectName is null");
@@ -262,18 +1172,18 @@ public class ClausewitzParser {
             throw new NullPointerException("No entry");
         }
 
-        try (InputStream stream = zipFile.getInputStream(zipEntry);) {
-            readSingleObject(new CharArray(stream, charset), skip, root, objectNames);
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry);) {
+            readSingleObject(open(stream, charset), skip, root, objectNames);
         } catch (CharacterCodingException e) {
             throw new ClausewitzParseException(e);
         } catch (IOException e) {
             LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", zipEntry.getName(), zipFile.getName(), e.getMessage(), e);
         }
 
-        return root.isEmpty() ? null : root.getAllOrdered().getFirst();
+        return root.isEmpty() ? null : root.getAllOrderedView().getFirst();
     }
 
-    private static void readSingleObject(CharArray reader, int skip, ClausewitzItem root, List<String> objectNames) {
+    private static void readSingleObject(TextSource reader, int skip, ClausewitzItem root, List<String> objectNames) {
         for (int i = 1; i <= skip; i++) {
             reader.skipLine();
         }
@@ -291,7 +1201,7 @@ public class ClausewitzParser {
             boolean found = false;
             currentLine = currentLine.trim();
             for (String objectName : objectNames) {
-                if (currentLine.startsWith(objectName)) {
+                if (startsWithKey(currentLine, objectName)) {
                     found = true;
                     break;
                 }
@@ -303,10 +1213,51 @@ public class ClausewitzParser {
             }
         }
 
-        readObject(root, reader, new HashMap<>(), true);
+        readObject(root, reader, new ClausewitzListeners(), true);
     }
 
-    private static void readObject(ClausewitzPObject currentNode, CharArray reader, Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners,
+    //The line starts with the whole key, not with a longer key that has the same beginning
+    private static boolean startsWithKey(String line, String key) {
+        if (!line.startsWith(key)) {
+            return false;
+        }
+
+        if (line.length() == key.length()) {
+            return true;
+        }
+
+        char next = line.charAt(key.length());
+
+        return Character.isWhitespace(next) || '=' == next || '{' == next;
+    }
+
+    //Interrupting the thread stops a parse, it is how async parses are cancelled
+    static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new ClausewitzParseException("Parse interrupted");
+        }
+    }
+
+    //Table of the tokens of the Map overloads. The last one is kept while it is the same map with the same content, a table is 65536 slots
+    static TokenTable tokenTable(Map<Integer, String> tokens) {
+        if (tokens == null) {
+            throw new NullPointerException("tokens is null");
+        }
+
+        int hash = tokens.hashCode();
+        CachedTokenTable cached = cachedTokenTable;
+
+        if (cached != null && cached.tokens().get() == tokens && cached.hash() == hash) {
+            return cached.table();
+        }
+
+        TokenTable table = new TokenTable(tokens);
+        cachedTokenTable = new CachedTokenTable(new WeakReference<>(tokens), hash, table);
+
+        return table;
+    }
+
+    private static void readObject(ClausewitzPObject currentNode, TextSource reader, ClausewitzListeners listeners,
                                    boolean readOnlyOneObject) {
         if (currentNode == null) {
             throw new NullPointerException("node is null");
@@ -354,14 +1305,9 @@ public class ClausewitzParser {
             }
 
             if ('{' == letter) {
+                checkInterrupted();
                 currentNode = new ClausewitzItem((ClausewitzItem) currentNode, strings.isEmpty() ? "" : strings.getLast(), 0, isEquals);
-                ClausewitzPObject finalCurrentNode = currentNode;
-                if (!listeners.isEmpty()) {
-                    listeners.entrySet()
-                             .stream()
-                             .filter(entry -> entry.getKey().test(finalCurrentNode))
-                             .forEach(entry -> entry.getValue().accept(finalCurrentNode.getName()));
-                }
+                listeners.fire(currentNode);
                 readObject(currentNode, reader, listeners, false);
 
                 currentNode = currentNode.getParent();
@@ -383,7 +1329,7 @@ public class ClausewitzParser {
                     ClausewitzItem previousItem = currentNode.getParent().getLastChild(currentNode.getName());
 
                     if (previousItem != null) {
-                        if (previousItem.getAllOrdered().isEmpty()) {
+                        if (previousItem.getAllOrderedView().isEmpty()) {
                             currentNode = currentNode.getParent()
                                                      .changeChildToList(previousItem.getOrder(), currentNode.getName(), strings.size() > 1 && nbNewLine <= 2,
                                                                         strings);
@@ -415,8 +1361,94 @@ public class ClausewitzParser {
         }
     }
 
+    //Same grammar as readObject, but events are sent to the handler instead of building nodes. name is null for the root
+    private static boolean streamObject(TextSource reader, ClausewitzHandler handler, String name) {
+        int letter;
+        List<String> strings = new ArrayList<>(2);
+        boolean isEquals = false;
+
+        while ((letter = reader.read()) >= 0) {
+            if (0 == letter) {
+                return false;
+            }
+
+            if (letter == ' ' || letter == '\t' || letter == '\r' || letter == '\n') {
+                continue;
+            }
+
+            if ('#' == letter) {
+                handler.comment(reader.readLine());
+                continue;
+            }
+
+            if ('"' == letter) {
+                if (isEquals) {
+                    if (!strings.isEmpty()) {
+                        handler.variable(strings.getFirst(), reader.readQuoted(true));
+                    }
+                    isEquals = false;
+                    strings.clear();
+                } else {
+                    strings.add(reader.readQuoted(true).trim());
+                }
+
+                continue;
+            }
+
+            if ('=' == letter) {
+                isEquals = true;
+                continue;
+            }
+
+            if ('{' == letter) {
+                String childName = strings.isEmpty() ? "" : strings.removeLast();
+                handler.startObject(childName, isEquals);
+                isEquals = false;
+
+                if (!streamObject(reader, handler, childName)) {
+                    return false;
+                }
+
+                continue;
+            }
+
+            if ('}' == letter) {
+                if (name == null) {
+                    return false;
+                }
+
+                strings.forEach(handler::value);
+                handler.endObject(name);
+
+                return true;
+            }
+
+            if (isEquals) { //Value
+                if (!strings.isEmpty()) {
+                    handler.variable(strings.getFirst(), reader.readStringOrNumber(letter));
+                }
+                isEquals = false;
+                strings.clear();
+            } else { //Key
+                strings.add(reader.readStringOrNumber(letter));
+            }
+        }
+
+        return false;
+    }
+
     public static ClausewitzItem convertBinary(ZipFile zipFile, String entryName, int skip, Map<Integer, String> tokens,
                                                Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, Charset charset) throws IOException {
+        return convertBinary(zipFile, entryName, skip, tokenTable(tokens), listeners, charset);
+    }
+
+    public static ClausewitzItem convertBinary(ZipFile zipFile, String entryName, int skip, TokenTable tokens,
+                                               Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, Charset charset) throws IOException {
+        return convertBinary(zipFile, entryName, skip, tokens, ClausewitzListeners.of(listeners), charset);
+    }
+
+    public static ClausewitzItem convertBinary(ZipFile zipFile, String entryName, int skip, TokenTable tokens, ClausewitzListeners listeners,
+                                               Charset charset) throws IOException {
         ZipEntry zipEntry = zipFile.getEntry(entryName);
 
         if (zipEntry == null) {
@@ -424,100 +1456,282 @@ public class ClausewitzParser {
             throw new NullPointerException("No entry");
         }
 
-        try (InputStream stream = zipFile.getInputStream(zipEntry)) {
-            return (ClausewitzItem) convertBinary(new CharArray(stream, charset), charset, skip, tokens, null, listeners);
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry)) {
+            return (ClausewitzItem) convertBinary(ByteArray.binary(stream, charset), skip, tokens, null, listeners);
+        }
+    }
+
+    public static CompletableFuture<ClausewitzItem> convertBinaryAsync(ZipFile zipFile, String entryName, int skip, TokenTable tokens, Charset charset) {
+        return convertBinaryAsync(zipFile, entryName, skip, tokens, new ClausewitzListeners(), charset, ParseFuture.VIRTUAL_THREADS);
+    }
+
+    //Runs on the executor, cancelling the future stops the conversion at the next object
+    public static CompletableFuture<ClausewitzItem> convertBinaryAsync(ZipFile zipFile, String entryName, int skip, TokenTable tokens,
+                                                                     ClausewitzListeners listeners, Charset charset, Executor executor) {
+        return ParseFuture.supply(() -> convertBinary(zipFile, entryName, skip, tokens, listeners, charset), executor);
+    }
+
+    public static CompletableFuture<ClausewitzItem> convertBinaryAsync(File file, Charset charset, int skip, TokenTable tokens) {
+        return convertBinaryAsync(file, charset, skip, tokens, ParseFuture.VIRTUAL_THREADS);
+    }
+
+    public static CompletableFuture<ClausewitzItem> convertBinaryAsync(File file, Charset charset, int skip, TokenTable tokens, Executor executor) {
+        return ParseFuture.supply(() -> convertBinary(file, charset, skip, tokens), executor);
+    }
+
+    public static Map<String, ClausewitzItem> convertBinaryAll(ZipFile zipFile, int skip, TokenTable tokens, Charset charset) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return convertBinaryAll(zipFile, skip, tokens, new ClausewitzListeners(), charset, executor);
         }
     }
 
+    //All the entries are converted at the same time, listeners are called from the executor threads
+    public static Map<String, ClausewitzItem> convertBinaryAll(ZipFile zipFile, int skip, TokenTable tokens, ClausewitzListeners listeners, Charset charset,
+                                                               Executor executor) {
+        return readAll(zipFile, executor, entryName -> {
+            try {
+                return convertBinary(zipFile, entryName, skip, tokens, listeners, charset);
+            } catch (IOException e) {
+                LOGGER.error("An error occurred while trying to read entry {} from file {}: {} !", entryName, zipFile.getName(), e.getMessage(), e);
+                throw new ClausewitzParseException(e);
+            }
+        });
+    }
+
     public static ClausewitzItem convertBinary(CharArray reader, Charset charset, int skip, Map<Integer, String> tokens) {
+        return convertBinary(reader, charset, skip, tokenTable(tokens));
+    }
+
+    public static ClausewitzItem convertBinary(CharArray reader, Charset charset, int skip, TokenTable tokens) {
         return (ClausewitzItem) convertBinary(reader, charset, skip, tokens, null, new HashMap<>());
     }
 
+    public static ClausewitzItem convertBinary(File file, Charset charset, int skip, TokenTable tokens) {
+        try {
+            return (ClausewitzItem) convertBinary(ByteArray.binary(file, charset), skip, tokens, null, new HashMap<>());
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    public static ClausewitzItem convertBinary(File file, Charset charset, int skip, TokenTable tokens, Collection<String> selectors) {
+        try {
+            return parse(ClausewitzReader.of(ByteArray.binary(file, charset), skip, tokens), selectors);
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    public static ClausewitzItem convertBinary(ByteBuffer buffer, Charset charset, int skip, TokenTable tokens) {
+        return (ClausewitzItem) convertBinary(ByteArray.binary(buffer, charset), skip, tokens, null, new HashMap<>());
+    }
+
+    public static void meltBinary(File file, Charset charset, int skip, TokenTable tokens, OutputStream outputStream) throws IOException {
+        meltBinary(file, charset, skip, tokens, new OutputStreamWriter(outputStream, charset));
+    }
+
+    public static void meltBinary(File file, Charset charset, int skip, TokenTable tokens, Writer writer) throws IOException {
+        Instant start = Instant.now();
+
+        write(ClausewitzReader.of(ByteArray.binary(file, charset), skip, tokens), writer);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to melt {}: {}ms !", file.getName(), Duration.between(start, Instant.now()).toMillis());
+        }
+    }
+
+    public static void meltBinary(ZipFile zipFile, String entryName, Charset charset, int skip, TokenTable tokens, OutputStream outputStream)
+            throws IOException {
+        meltBinary(zipFile, entryName, charset, skip, tokens, new OutputStreamWriter(outputStream, charset));
+    }
+
+    public static void meltBinary(ZipFile zipFile, String entryName, Charset charset, int skip, TokenTable tokens, Writer writer) throws IOException {
+        Instant start = Instant.now();
+        ZipEntry zipEntry = zipFile.getEntry(entryName);
+
+        if (zipEntry == null) {
+            LOGGER.error("Can't find entry {} in file {}!", entryName, zipFile.getName());
+            throw new NullPointerException("No entry");
+        }
+
+        try (InputStream stream = ReadAheadInputStream.open(zipFile, zipEntry)) {
+            write(ClausewitzReader.of(ByteArray.binary(stream, charset), skip, tokens), writer);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Time to melt entry {} of {}: {}ms !", zipEntry, zipFile.getName(), Duration.between(start, Instant.now()).toMillis());
+        }
+    }
+
+    //Writes the tokens of the cursor as text as they come, nothing is kept but the values of the current line
+    public static void write(ClausewitzReader reader, Writer writer) throws IOException {
+        if (reader == null) {
+            throw new NullPointerException("reader is null");
+        }
+
+        BufferedWriter bufferedWriter = writer instanceof BufferedWriter buffered ? buffered : new BufferedWriter(writer, 1 << 16);
+        boolean inValues = false; //Values of a list are written on the same line
+        ClausewitzReader.Token token;
+
+        while ((token = reader.next()) != ClausewitzReader.Token.END_DOCUMENT) {
+            if (inValues && ClausewitzReader.Token.VALUE != token) {
+                bufferedWriter.newLine();
+                inValues = false;
+            }
+
+            switch (token) {
+                case START_OBJECT -> {
+                    ClausewitzUtils.printTabs(bufferedWriter, reader.depth() - 1);
+
+                    if (ClausewitzUtils.isNotBlank(reader.name())) {
+                        bufferedWriter.write(reader.name());
+
+                        if (reader.hasEquals()) {
+                            ClausewitzUtils.printEquals(bufferedWriter);
+                        }
+                    }
+
+                    ClausewitzUtils.printOpen(bufferedWriter);
+                    bufferedWriter.newLine();
+                }
+                case END_OBJECT -> {
+                    ClausewitzUtils.printTabs(bufferedWriter, reader.depth());
+                    ClausewitzUtils.printClose(bufferedWriter);
+                    bufferedWriter.newLine();
+                }
+                case VARIABLE -> {
+                    ClausewitzUtils.printTabs(bufferedWriter, reader.depth());
+                    bufferedWriter.write(reader.name());
+                    ClausewitzUtils.printEquals(bufferedWriter);
+                    bufferedWriter.write(reader.value());
+                    bufferedWriter.newLine();
+                }
+                case VALUE -> {
+                    if (!inValues) {
+                        ClausewitzUtils.printTabs(bufferedWriter, reader.depth());
+                        inValues = true;
+                    }
+
+                    bufferedWriter.write(reader.value());
+                    ClausewitzUtils.printSpace(bufferedWriter);
+                }
+            }
+        }
+
+        if (inValues) {
+            bufferedWriter.newLine();
+        }
+
+        bufferedWriter.flush();
+    }
+
+    public static ClausewitzItem convertBinaryParallel(CharArray reader, Charset charset, int skip, Map<Integer, String> tokens) {
+        return convertBinaryParallel(reader, charset, skip, tokenTable(tokens));
+    }
+
+    public static ClausewitzItem convertBinaryParallel(CharArray reader, Charset charset, int skip, TokenTable tokens) {
+        return convertBinaryParallel(reader, charset, skip, tokens, new HashMap<>(), ForkJoinPool.commonPool());
+    }
+
+    public static ClausewitzItem convertBinaryParallel(CharArray reader, Charset charset, int skip, Map<Integer, String> tokens,
+                                                       Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, ForkJoinPool pool) {
+        return convertBinaryParallel(reader, charset, skip, tokenTable(tokens), listeners, pool);
+    }
+
+    public static ClausewitzItem convertBinaryParallel(CharArray reader, Charset charset, int skip, TokenTable tokens,
+                                                       Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, ForkJoinPool pool) {
+        return convertBinaryParallel(ByteArray.binary(reader.encode(charset), charset), skip, tokens, listeners, pool);
+    }
+
+    public static ClausewitzItem convertBinaryParallel(File file, Charset charset, int skip, TokenTable tokens) {
+        try {
+            return convertBinaryParallel(ByteArray.binary(file, charset), skip, tokens, new HashMap<>(), ForkJoinPool.commonPool());
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+    }
+
+    //Listeners are called from the pool threads, in no particular order
+    public static ClausewitzItem convertBinaryParallel(ByteArray reader, int skip, TokenTable tokens,
+                                                       Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners, ForkJoinPool pool) {
+        return convertBinaryParallel(reader, skip, tokens, ClausewitzListeners.of(listeners), pool);
+    }
+
+    public static ClausewitzItem convertBinaryParallel(ByteArray reader, int skip, TokenTable tokens, ClausewitzListeners listeners, ForkJoinPool pool) {
+        if (reader.isStream()) {
+            throw new IllegalArgumentException("A stream can't be split in chunks, use convertBinary");
+        }
+
+        reader.addPosition(skip); //Skip leader XXXbin
+
+        int chunkSize = (int) Math.max(MIN_CHUNK_SIZE, reader.length() / (pool.getParallelism() * 4L));
+
+        return parseChunks(splitBinaryTopLevel(reader, chunkSize), pool,
+                           (from, to) -> (ClausewitzItem) convertBinary(reader.slice(from, to), 0, tokens, null, listeners));
+    }
+
     public static ClausewitzObject convertBinary(CharArray reader, Charset charset, int skip, Map<Integer, String> tokens, List<String> objectNames,
                                                  Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
-        Short token;
+        return convertBinary(reader, charset, skip, tokenTable(tokens), objectNames, listeners);
+    }
+
+    public static ClausewitzObject convertBinary(CharArray reader, Charset charset, int skip, TokenTable tokens, List<String> objectNames,
+                                                 Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
+        return convertBinary(ByteArray.binary(reader.encode(charset), charset), skip, tokens, objectNames, listeners);
+    }
+
+    public static ClausewitzObject convertBinary(ByteArray reader, int skip, TokenTable tokens, List<String> objectNames,
+                                                 Map<Predicate<ClausewitzPObject>, Consumer<String>> listeners) {
+        return convertBinary(reader, skip, tokens, objectNames, ClausewitzListeners.of(listeners));
+    }
+
+    public static ClausewitzObject convertBinary(ByteArray reader, int skip, TokenTable tokens, List<String> objectNames, ClausewitzListeners listeners) {
+        int token;
         boolean isEquals = false;
         ClausewitzPObject currentNode = new ClausewitzItem();
-        List<String> strings = new ArrayList<>();
+        BinaryValues values = new BinaryValues();
 
-        char[] skipped = new char[skip]; //Skip leader XXXbin
-        reader.read(skipped);
+        reader.addPosition(skip); //Skip leader XXXbin
 
-        while ((token = readToken(reader)) != null) {
+        while ((token = readToken(reader)) >= 0) {
             BinaryToken binaryToken = BinaryToken.ofToken(token);
 
             if (binaryToken != null) {
                 switch (binaryToken) {
-                    case QUOTED_STRING -> {
-                        String string = readBinaryString(reader).trim();
-                        strings.add(ClausewitzUtils.QUOTE + string + ClausewitzUtils.QUOTE);
-                    }
-                    case NOT_QUOTED_STRING -> {
-                        String string = readBinaryString(reader).trim();
-                        strings.add(string);
-                    }
-                    case UNSIGNED_INT -> {
-                        long value = readBinaryUnsignedInt(reader);
-                        strings.add(Long.toString(value));
-                    }
-                    case UNSIGNED_LONG -> {
-                        String value = readBinaryUnsignedLong(reader);
-                        strings.add(value);
-                    }
-                    case INT -> {
-                        int value = readBinaryInt(reader);
-                        strings.add(Integer.toString(value));
-                    }
-                    case FLOAT -> {
-                        float value = readBinaryFloat(reader);
-                        strings.add(Float.toString(value));
-                    }
-                    case DOUBLE -> {
-                        double value = readBinaryDouble(reader);
-                        strings.add(Double.toString(value));
-                    }
-                    case BOOL -> {
-                        boolean value = readBinaryBool(reader);
-                        strings.add(value ? "yes" : "no");
-                    }
-                    case COLOR -> {
-                        String value = readBinaryColor(reader);
-                        strings.add(value);
-                    }
                     case EQUALS -> {
                         isEquals = true;
                         continue;
                     }
                     case OPEN -> {
-                        currentNode = ((ClausewitzItem) currentNode).addChild(strings.isEmpty() ? "" : strings.getLast(), isEquals);
-                        if (!strings.isEmpty()) {
-                            strings.removeLast();
+                        checkInterrupted();
+                        currentNode = ((ClausewitzItem) currentNode).addChild(values.isEmpty() ? "" : values.getLast(), isEquals);
+                        if (!values.isEmpty()) {
+                            values.removeLast();
                         }
                         isEquals = false;
-                        ClausewitzPObject finalCurrentNode = currentNode;
-
-                        for (Entry<Predicate<ClausewitzPObject>, Consumer<String>> entry : listeners.entrySet()) {
-                            if (entry.getKey().test(finalCurrentNode)) {
-                                entry.getValue().accept(finalCurrentNode.getName());
-                            }
-                        }
+                        listeners.fire(currentNode);
                     }
                     case END -> {
-                        if (!strings.isEmpty()) {
+                        if (!values.isEmpty()) {
                             ClausewitzItem previousItem = currentNode.getParent().getLastChild(currentNode.getName());
 
                             if (previousItem != null) {
-                                if (previousItem.getAllOrdered().isEmpty()) {
+                                if (previousItem.getAllOrderedView().isEmpty()) {
                                     currentNode = currentNode.getParent()
-                                                             .changeChildToList(previousItem.getOrder(), currentNode.getName(), strings.size() > 1, strings);
+                                                             .changeChildToList(previousItem.getOrder(), currentNode.getName(), values.size() > 1, List.of());
+                                    values.addTo((ClausewitzList) currentNode);
                                 } else {
-                                    previousItem.addList("", strings.size() > 1, false, strings);
+                                    values.addTo(previousItem.addList("", values.size() > 1, false, List.of()));
                                 }
                             } else {
-                                currentNode = currentNode.getParent().addList(currentNode.getName(), strings.size() > 1, strings);
+                                currentNode = currentNode.getParent().addList(currentNode.getName(), values.size() > 1, List.of());
+                                values.addTo((ClausewitzList) currentNode);
                             }
 
-                            strings.clear();
+                            values.clear();
                         }
 
                         if (objectNames != null && objectNames.contains(currentNode.getName())) {
@@ -527,22 +1741,31 @@ public class ClausewitzParser {
                         currentNode = currentNode.getParent();
                         isEquals = false;
                     }
-                }
-            } else {
-                String s = tokens.get((int) token);
+                    default -> {
+                        ClausewitzValueType type = binaryValueType(binaryToken);
 
-                if (s == null) {
-                    s = new String(tokenToBytes(token), charset);
+                        if (type != null) {
+                            values.add(type, readBinaryRaw(reader, binaryToken));
+                        } else {
+                            values.add(readBinaryValue(reader, binaryToken));
+                        }
+                    }
                 }
-
-                strings.add(s);
+            } else {
+                values.add(readTokenString(token, tokens, reader.charset()));
             }
 
             if (isEquals) { //Value
-                String key = strings.get(0);
-                ((ClausewitzItem) currentNode).addVariable(key, strings.get(1));
+                String key = values.get(0);
+
+                if (values.type(1) != null) {
+                    ((ClausewitzItem) currentNode).addVariable(new ClausewitzVariable(key, 0, values.type(1), values.raw(1)));
+                } else {
+                    ((ClausewitzItem) currentNode).addVariable(key, values.get(1));
+                }
+
                 isEquals = false;
-                strings.clear();
+                values.clear();
 
                 if (objectNames != null && objectNames.contains(key)) {
                     return ((ClausewitzItem) currentNode).getVar(key);
@@ -557,91 +1780,158 @@ public class ClausewitzParser {
         return currentNode;
     }
 
-    private static Short readToken(CharArray reader) {
-        byte first = (byte) reader.read();
-        byte second = (byte) reader.read();
+    //Same as splitTopLevel for binary tokens: cuts after top level END that do not leave a pending key or list value
+    private static List<Integer> splitBinaryTopLevel(ByteArray reader, int chunkSize) {
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(reader.position());
 
-        if (first == -1 && second == -1) {
-            return null;
+        int depth = 0;
+        int pending = 0;
+        boolean isEquals = false;
+        int token;
+
+        while ((token = readToken(reader)) >= 0) {
+            BinaryToken binaryToken = BinaryToken.ofToken(token);
+
+            if (BinaryToken.OPEN == binaryToken) {
+                if (depth == 0) {
+                    pending = Math.max(0, pending - 1);
+                    isEquals = false;
+                }
+
+                depth++;
+            } else if (BinaryToken.END == binaryToken) {
+                if (depth == 0) {
+                    break;
+                }
+
+                depth--;
+
+                if (depth == 0 && pending == 0 && reader.position() - cuts.getLast() >= chunkSize) {
+                    cuts.add(reader.position());
+                }
+            } else if (BinaryToken.EQUALS == binaryToken) {
+                if (depth == 0) {
+                    isEquals = true;
+                }
+            } else {
+                if (binaryToken != null) {
+                    skipBinaryValue(reader, binaryToken);
+                }
+
+                if (depth == 0) {
+                    if (isEquals) { //Value
+                        isEquals = false;
+                        pending = 0;
+                    } else { //Key
+                        pending++;
+                    }
+                }
+            }
         }
 
-        return (short) (((second & 0xFF) << 8) + (first & 0xFF));
-    }
+        if (Math.min(reader.position(), reader.length()) > cuts.getLast()) {
+            cuts.add((int) Math.min(reader.position(), reader.length()));
+        }
 
-    private static short readShortLittle(CharArray reader) {
-        byte first = (byte) reader.read();
-        byte second = (byte) reader.read();
+        reader.position(cuts.getFirst());
 
-        return (short) (((second & 0xFF) << 8) + (first & 0xFF));
+        return cuts;
     }
 
-    private static int readIntLittle(CharArray reader) {
-        byte first = (byte) reader.read();
-        byte second = (byte) reader.read();
-        byte third = (byte) reader.read();
-        byte forth = (byte) reader.read();
+    static String readTokenString(int token, TokenTable tokens, Charset charset) {
+        String s = tokens.get(token);
 
-        return (first & 0xFF) | ((second & 0xFF) << 8) | ((third & 0xFF) << 16) | ((forth & 0xFF) << 24);
+        if (s == null) {
+            s = new String(tokenToBytes(token), charset);
+        }
+
+        return s;
     }
 
-    private static long readLongLittle(CharArray reader) {
-        byte first = (byte) reader.read();
-        byte second = (byte) reader.read();
-        byte third = (byte) reader.read();
-        byte forth = (byte) reader.read();
-        byte fifth = (byte) reader.read();
-        byte sixth = (byte) reader.read();
-        byte seventh = (byte) reader.read();
-        byte eighth = (byte) reader.read();
+    static String readBinaryValue(ByteArray reader, BinaryToken binaryToken) {
+        ClausewitzValueType type = binaryValueType(binaryToken);
+
+        if (type != null) {
+            return type.format(readBinaryRaw(reader, binaryToken));
+        }
+
+        return switch (binaryToken) {
+            case QUOTED_STRING -> ClausewitzUtils.QUOTE + readBinaryString(reader).trim() + ClausewitzUtils.QUOTE;
+            case NOT_QUOTED_STRING -> readBinaryString(reader).trim();
+            case COLOR -> readBinaryColor(reader);
+            default -> null;
+        };
+    }
 
-        return ((long) first & 0xFF) | (((long) second & 0xFF) << 8) | (((long) third & 0xFF) << 16) | (((long) forth & 0xFF) << 24) |
-               (((long) fifth & 0xFF) << 32) | (((long) sixth & 0xFF) << 40) | (((long) seventh & 0xFF) << 48) | (((long) eighth & 0xFF) << 56);
+    //Type of the raw value of a number or bool token, null for the others
+    static ClausewitzValueType binaryValueType(BinaryToken binaryToken) {
+        return switch (binaryToken) {
+            case UNSIGNED_INT -> ClausewitzValueType.LONG;
+            case UNSIGNED_LONG -> ClausewitzValueType.UNSIGNED_LONG;
+            case INT -> ClausewitzValueType.INT;
+            case FLOAT -> ClausewitzValueType.FIXED_POINT;
+            case DOUBLE -> ClausewitzValueType.DOUBLE;
+            case BOOL -> ClausewitzValueType.BOOL;
+            default -> null;
+        };
     }
 
-    private static byte[] tokenToBytes(short token) {
-        return new byte[] {(byte) (token & 0xff), (byte) ((token >> 8) & 0xff)};
+    //Raw value of a token which has a binaryValueType
+    static long readBinaryRaw(ByteArray reader, BinaryToken binaryToken) {
+        return switch (binaryToken) {
+            case UNSIGNED_INT -> readBinaryUnsignedInt(reader);
+            case UNSIGNED_LONG -> reader.readLong();
+            case INT, FLOAT -> reader.readInt();
+            case DOUBLE -> Double.doubleToRawLongBits(readBinaryDouble(reader));
+            case BOOL -> readBinaryBool(reader) ? 1 : 0;
+            default -> throw new IllegalArgumentException(binaryToken + " has no raw value");
+        };
     }
 
-    private static String readBinaryString(CharArray reader) {
-        short len = readShortLittle(reader);
+    //Same as readBinaryValue without building the value
+    static void skipBinaryValue(ByteArray reader, BinaryToken binaryToken) {
+        switch (binaryToken) {
+            case QUOTED_STRING, NOT_QUOTED_STRING -> reader.addPosition(reader.readShort());
+            case UNSIGNED_INT, INT, FLOAT -> reader.addPosition(4);
+            case UNSIGNED_LONG, DOUBLE -> reader.addPosition(8);
+            case BOOL -> reader.addPosition(1);
+            case COLOR -> reader.addPosition(22);
+            default -> {
+            }
+        }
+    }
 
-        char[] string = new char[len];
-        reader.read(string);
-        return new String(string);
+    //Unsigned value of the next token, -1 at the end
+    static int readToken(ByteArray reader) {
+        return reader.readUnsignedShort();
     }
 
-    private static boolean readBinaryBool(CharArray reader) {
-        return reader.read() == 0;
+    private static byte[] tokenToBytes(int token) {
+        return new byte[] {(byte) (token & 0xff), (byte) ((token >> 8) & 0xff)};
     }
 
-    private static long readBinaryUnsignedInt(CharArray reader) {
-        return Integer.toUnsignedLong(readIntLittle(reader));
+    private static String readBinaryString(ByteArray reader) {
+        return reader.readBytesAsString(reader.readShort());
     }
 
-    private static int readBinaryInt(CharArray reader) {
-        return readIntLittle(reader);
+    private static boolean readBinaryBool(ByteArray reader) {
+        return reader.read() == 0;
     }
 
-    private static float readBinaryFloat(CharArray reader) {
-        return readIntLittle(reader) / 1_000f;
+    private static long readBinaryUnsignedInt(ByteArray reader) {
+        return Integer.toUnsignedLong(reader.readInt());
     }
 
-    private static double readBinaryDouble(CharArray reader) {
-        double d = readIntLittle(reader) / 65_536d * 2;
+    private static double readBinaryDouble(ByteArray reader) {
+        double d = reader.readInt() / 65_536d * 2;
 
-        reader.read(4, 0); //for double need to read 8 bytes
+        reader.addPosition(4); //for double need to read 8 bytes
 
         return d;
     }
 
-    private static String readBinaryUnsignedLong(CharArray reader) {
-        return Long.toUnsignedString(readLongLittle(reader));
-    }
-
-    private static String readBinaryColor(CharArray reader) {
-        char[] bytes = new char[22];
-        reader.read(bytes);
-
-        return new String(bytes); //Fixme not sure what to do
+    private static String readBinaryColor(ByteArray reader) {
+        return reader.readBytesAsString(22); //Fixme not sure what to do
     }
 }
@@ -0,0 +1,63 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.TokenTable;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/*
+ * Pull cursor over a text or binary file: call next() until END_DOCUMENT and only read name() and value() of the tokens you need. skipValue() on a
+ * START_OBJECT jumps to its END_OBJECT without building anything.
+ */
+public abstract class ClausewitzReader {
+
+    public enum Token {
+        START_OBJECT, //name() is the name of the object, "" if none
+        END_OBJECT,
+        VARIABLE, //name = value
+        VALUE, //Element of a list, name() is null
+        END_DOCUMENT
+    }
+
+    protected Token currentToken;
+
+    public static ClausewitzReader of(TextSource reader, int skip) {
+        return new TextClausewitzReader(reader, skip);
+    }
+
+    public static ClausewitzReader of(CharArray reader, Charset charset, int skip, Map<Integer, String> tokens) {
+        return of(reader, charset, skip, ClausewitzParser.tokenTable(tokens));
+    }
+
+    public static ClausewitzReader of(CharArray reader, Charset charset, int skip, TokenTable tokens) {
+        return of(ByteArray.binary(reader.encode(charset), charset), skip, tokens);
+    }
+
+    public static ClausewitzReader of(ByteArray reader, int skip, TokenTable tokens) {
+        return new BinaryClausewitzReader(reader, skip, tokens);
+    }
+
+    public abstract Token next();
+
+    public Token currentToken() {
+        return this.currentToken;
+    }
+
+    public abstract String name();
+
+    public abstract String value();
+
+    //For START_OBJECT, whether the name is followed by =
+    public abstract boolean hasEquals();
+
+    //Number of objects currently opened
+    public abstract int depth();
+
+    //When on a START_OBJECT, moves to its END_OBJECT. Nothing to skip for the other tokens
+    public abstract void skipValue();
+
+    //For END_OBJECT, newlines read in the object but not in its children, -1 when the format has no lines
+    public int newLines() {
+        return -1;
+    }
+}
@@ -0,0 +1,296 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/*
+ * Checkpoints of a deflated zip entry, like zlib's zran: where a block starts in the compressed data and the 32K of output before it, taken about every
+ * span bytes of output. open(...) starts inflating from the last checkpoint before an offset instead of from the beginning of the entry. Can be saved
+ * next to the zip and is only valid as long as the entry keeps the same crc and sizes.
+ */
+public final class InflateIndex {
+
+    private static final int VERSION = 1;
+
+    public static final String EXTENSION = ".zidx";
+
+    public static final int DEFAULT_SPAN = 1 << 20;
+
+    private final String entryName;
+
+    private final long dataOffset; //Position of the compressed data in the zip
+
+    private final long compressedSize;
+
+    private final long size;
+
+    private final long crc;
+
+    private final List<Checkpoint> checkpoints;
+
+    private record Checkpoint(long bit, long out, byte[] window) {}
+
+    private InflateIndex(String entryName, long dataOffset, long compressedSize, long size, long crc, List<Checkpoint> checkpoints) {
+        this.entryName = entryName;
+        this.dataOffset = dataOffset;
+        this.compressedSize = compressedSize;
+        this.size = size;
+        this.crc = crc;
+        this.checkpoints = checkpoints;
+    }
+
+    public static File sidecar(File file, String entryName) {
+        return new File(file.getPath() + "." + entryName + EXTENSION);
+    }
+
+    public static InflateIndex build(ZipFile zipFile, String entryName) throws IOException {
+        return build(zipFile, entryName, DEFAULT_SPAN);
+    }
+
+    //Inflates the whole entry once, slower than Inflater as it is done in Java to know where the blocks start
+    public static InflateIndex build(ZipFile zipFile, String entryName, int span) throws IOException {
+        if (zipFile == null) {
+            throw new NullPointerException("zipFile null");
+        }
+
+        ZipEntry zipEntry = zipFile.getEntry(entryName);
+
+        if (zipEntry == null) {
+            throw new ZipException("No entry " + entryName + " in " + zipFile.getName());
+        }
+
+        if (zipEntry.getMethod() != ZipEntry.DEFLATED) {
+            throw new ZipException("Entry " + entryName + " is not deflated");
+        }
+
+        long dataOffset;
+        List<Checkpoint> checkpoints = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(new File(zipFile.getName()).toPath(), StandardOpenOption.READ)) {
+            dataOffset = dataOffset(channel, entryName, zipEntry);
+            channel.position(dataOffset);
+            RawInflater inflater = new RawInflater(Channels.newInputStream(channel));
+            inflater.inflate((i, bit, out) -> {
+                if (out >= (checkpoints.isEmpty() ? span : checkpoints.getLast().out + span)) {
+                    checkpoints.add(new Checkpoint(bit, out, i.window()));
+                }
+            });
+
+            if (inflater.length() != zipEntry.getSize() || inflater.crc() != zipEntry.getCrc()) {
+                throw new ZipException("Invalid deflate data for entry " + entryName);
+            }
+        }
+
+        return new InflateIndex(entryName, dataOffset, zipEntry.getCompressedSize(), zipEntry.getSize(), zipEntry.getCrc(),
+                                Collections.unmodifiableList(checkpoints));
+    }
+
+    public static InflateIndex read(File indexFile) throws IOException {
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (stream.readInt() != VERSION) {
+                throw new IOException("Unknown index version in " + indexFile.getAbsolutePath());
+            }
+
+            String entryName = stream.readUTF();
+            long dataOffset = stream.readLong();
+            long compressedSize = stream.readLong();
+            long size = stream.readLong();
+            long crc = stream.readLong();
+            int nbCheckpoints = stream.readInt();
+            List<Checkpoint> checkpoints = new ArrayList<>(nbCheckpoints);
+
+            for (int i = 0; i < nbCheckpoints; i++) {
+                long bit = stream.readLong();
+                long out = stream.readLong();
+                byte[] window = new byte[stream.readInt()];
+                stream.readFully(window);
+                checkpoints.add(new Checkpoint(bit, out, window));
+            }
+
+            return new InflateIndex(entryName, dataOffset, compressedSize, size, crc, Collections.unmodifiableList(checkpoints));
+        }
+    }
+
+    public void write(File indexFile) throws IOException {
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            stream.writeInt(VERSION);
+            stream.writeUTF(this.entryName);
+            stream.writeLong(this.dataOffset);
+            stream.writeLong(this.compressedSize);
+            stream.writeLong(this.size);
+            stream.writeLong(this.crc);
+            stream.writeInt(this.checkpoints.size());
+
+            for (Checkpoint checkpoint : this.checkpoints) {
+                stream.writeLong(checkpoint.bit);
+                stream.writeLong(checkpoint.out);
+                stream.writeInt(checkpoint.window.length);
+                stream.write(checkpoint.window);
+            }
+        }
+    }
+
+    public boolean isValidFor(ZipFile zipFile) {
+        ZipEntry zipEntry = zipFile.getEntry(this.entryName);
+
+        return zipEntry != null && zipEntry.getCrc() == this.crc && zipEntry.getSize() == this.size && zipEntry.getCompressedSize() == this.compressedSize;
+    }
+
+    public String entryName() {
+        return this.entryName;
+    }
+
+    public int nbCheckpoints() {
+        return this.checkpoints.size();
+    }
+
+    //Output of the entry from offset, only what is between the checkpoint before it and offset is inflated to get there
+    public InputStream open(ZipFile zipFile, long offset) throws IOException {
+        if (offset < 0 || offset > this.size) {
+            throw new IllegalArgumentException("Offset " + offset + " is outside of entry " + this.entryName);
+        }
+
+        Checkpoint checkpoint = null;
+
+        for (Checkpoint c : this.checkpoints) {
+            if (c.out > offset) {
+                break;
+            }
+
+            checkpoint = c;
+        }
+
+        long bit = checkpoint == null ? 0 : checkpoint.bit;
+        Inflater inflater = new Inflater(true);
+        FileChannel channel = null;
+
+        try {
+            channel = FileChannel.open(new File(zipFile.getName()).toPath(), StandardOpenOption.READ);
+            channel.position(this.dataOffset + bit / 8);
+            InputStream input = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+            InputStream stream;
+
+            if (bit % 8 != 0) {
+                //Inflater can only start on a byte, shifting the input would also move the byte boundaries the stored blocks are aligned on
+                inflater.end();
+                stream = new RawInflater(input, (int) (bit % 8), checkpoint.window, checkpoint.out).stream();
+            } else {
+                if (checkpoint != null) {
+                    inflater.setDictionary(checkpoint.window);
+                }
+
+                stream = new InflaterInputStream(input, inflater, 1 << 16) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        inflater.end();
+                    }
+                };
+            }
+
+            stream.skipNBytes(offset - (checkpoint == null ? 0 : checkpoint.out));
+
+            return stream;
+        } catch (Throwable e) { //Nothing is closed by the caller when it gets no stream
+            if (channel != null) {
+                channel.close();
+            }
+
+            inflater.end();
+            throw e;
+        }
+    }
+
+    /*
+     * Position of the data of the entry, after its local header. The central directory is read as ZipFile does not give it. The entry of the file must have
+     * the method, sizes and crc of zipEntry, else the file is not the one the zip was opened from anymore.
+     */
+    static long dataOffset(FileChannel channel, String entryName, ZipEntry zipEntry) throws IOException {
+        long length = channel.size();
+        int tailLength = (int) Math.min(length, 22 + 0xFFFF);
+        ByteBuffer tail = read(channel, length - tailLength, tailLength);
+        int end = -1;
+
+        for (int i = tailLength - 22; i >= 0; i--) {
+            if (tail.getInt(i) == 0x06054b50) {
+                end = i;
+                break;
+            }
+        }
+
+        if (end < 0) {
+            throw new ZipException("No end of central directory");
+        }
+
+        long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+
+        if (directoryOffset == 0xFFFFFFFFL) {
+            throw new ZipException("Zip64 is not supported");
+        }
+
+        ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+
+        for (int i = 0; i + 46 <= directory.limit() && directory.getInt(i) == 0x02014b50; ) {
+            int nameLength = Short.toUnsignedInt(directory.getShort(i + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(i + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(i + 32));
+            String name = new String(directory.array(), i + 46, nameLength, StandardCharsets.UTF_8);
+
+            if (entryName.equals(name)) {
+                if (zipEntry != null && (Short.toUnsignedInt(directory.getShort(i + 10)) != zipEntry.getMethod()
+                                         || Integer.toUnsignedLong(directory.getInt(i + 16)) != zipEntry.getCrc()
+                                         || Integer.toUnsignedLong(directory.getInt(i + 20)) != zipEntry.getCompressedSize()
+                                         || Integer.toUnsignedLong(directory.getInt(i + 24)) != zipEntry.getSize())) {
+                    throw new ZipException("Entry " + entryName + " changed since the zip was opened");
+                }
+
+                long headerOffset = Integer.toUnsignedLong(directory.getInt(i + 42));
+                ByteBuffer header = read(channel, headerOffset, 30);
+
+                if (header.getInt(0) != 0x04034b50) {
+                    throw new ZipException("Invalid local header for entry " + entryName);
+                }
+
+                return headerOffset + 30 + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+            }
+
+            i += 46 + nameLength + extraLength + commentLength;
+        }
+
+        throw new ZipException("No entry " + entryName);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ZipException("Unexpected end of zip");
+            }
+        }
+
+        return buffer.flip();
+    }
+}
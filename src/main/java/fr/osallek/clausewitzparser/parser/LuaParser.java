@@ -1,17 +1,16 @@
 package fr.osallek.clausewitzparser.parser;
 
-import fr.osallek.clausewitzparser.common.ClausewitzParseException;
 import fr.osallek.clausewitzparser.ic4j.CharsetDetector;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.charset.CharacterCodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public final class LuaParser {
 
@@ -19,26 +18,26 @@ public final class LuaParser {
 
 
     public static Map<String, Object> parse(File file) throws IOException {
-        try {
-            return parse(file, CharsetDetector.detect(new BufferedInputStream(new FileInputStream(file))));
-        } catch (IOException | ClausewitzParseException ignored) {
-            try {
-                return parse(file, StandardCharsets.UTF_8);
-            } catch (ClausewitzParseException e) {
-                if (CharacterCodingException.class.equals(e.getCause().getClass())) {
-                    return parse(file, StandardCharsets.ISO_8859_1);
-                } else {
-                    throw e;
-                }
-            }
-        }
+        ByteBuffer bytes = ByteArray.read(file);
+        Charset charset = CharsetDetector.resolve(bytes, CharsetDetector.detect(bytes), StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1);
+
+        return parse(TextSource.of(bytes, charset), new LinkedHashMap<>(), false);
     }
 
     public static Map<String, Object> parse(File file, Charset charset) throws IOException {
-        return parse(new CharArray(file, charset), new LinkedHashMap<>(), false);
+        return parse(TextSource.of(file, charset), new LinkedHashMap<>(), false);
+    }
+
+    public static CompletableFuture<Map<String, Object>> parseAsync(File file) {
+        return ParseFuture.supply(() -> parse(file), ParseFuture.VIRTUAL_THREADS);
+    }
+
+    //Runs on the executor, cancelling the future stops the parse at the next table
+    public static CompletableFuture<Map<String, Object>> parseAsync(File file, Charset charset, Executor executor) {
+        return ParseFuture.supply(() -> parse(file, charset), executor);
     }
 
-    public static Map<String, Object> parse(CharArray reader, Map<String, Object> map, boolean isDot) {
+    public static Map<String, Object> parse(TextSource reader, Map<String, Object> map, boolean isDot) {
         if (reader == null) {
             return map;
         }
@@ -63,6 +62,7 @@ public final class LuaParser {
             }
 
             if ('{' == letter && isEquals) {
+                ClausewitzParser.checkInterrupted();
                 map.put(key, parse(reader, (Map<String, Object>) map.getOrDefault(key, new LinkedHashMap<>()), false));
                 isEquals = false;
                 continue;
@@ -0,0 +1,263 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.common.ClausewitzParseException;
+import fr.osallek.clausewitzparser.model.ClausewitzItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+ * Parsed files kept as bytes in memory, least recently used first out once over the size limit, and in a directory when one is given so they survive a
+ * restart. An entry is used while the file has the same length and last modified date, or the same content hash when only the date changed. Each call
+ * returns a new tree, so the trees can be modified.
+ */
+public final class ParseCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParseCache.class);
+
+    private static final int VERSION = 1;
+
+    public static final String EXTENSION = ".cache";
+
+    private final Path directory;
+
+    private final long maxMemoryBytes;
+
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long memoryBytes;
+
+    private record Entry(long length, long lastModified, byte[] hash, byte[] content) {
+
+        private boolean isValidFor(File file) {
+            return file.length() == this.length && file.lastModified() == this.lastModified;
+        }
+    }
+
+    public ParseCache(long maxMemoryBytes) {
+        this(null, maxMemoryBytes);
+    }
+
+    public ParseCache(Path directory, long maxMemoryBytes) {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public ClausewitzItem parse(File file, int skip) {
+        return parse(file, skip, null);
+    }
+
+    public ClausewitzItem parse(File file, int skip, Charset charset) {
+        byte[] content = get("clausewitz|" + skip + "|" + charset + "|" + file.getAbsolutePath(), file, f -> {
+            ClausewitzItem root = ClausewitzParser.parse(f, skip, new ClausewitzListeners(), charset);
+
+            return root == null ? null : TreeCodec.write(root);
+        });
+
+        return content == null ? null : TreeCodec.readItem(content);
+    }
+
+    public Map<String, Object> parseLua(File file) {
+        return parseLua(file, null);
+    }
+
+    public Map<String, Object> parseLua(File file, Charset charset) {
+        byte[] content = get("lua|" + charset + "|" + file.getAbsolutePath(), file, f -> {
+            try {
+                return TreeCodec.write(charset == null ? LuaParser.parse(f) : LuaParser.parse(f, charset));
+            } catch (IOException e) {
+                LOGGER.error("An error occurred while trying to read file {}: {} !", f.getAbsolutePath(), e.getMessage(), e);
+                throw new ClausewitzParseException(e);
+            }
+        });
+
+        return TreeCodec.readMap(content);
+    }
+
+    public synchronized void clear() {
+        this.memory.clear();
+        this.memoryBytes = 0;
+    }
+
+    private byte[] get(String key, File file, Function<File, byte[]> parser) {
+        Entry entry = memoryEntry(key);
+
+        if (entry == null) {
+            entry = diskEntry(key);
+        }
+
+        if (entry != null) {
+            if (entry.isValidFor(file)) {
+                putMemory(key, entry);
+
+                return entry.content;
+            }
+
+            if (entry.length == file.length()) { //Touched or copied
+                byte[] hash = hash(file);
+
+                if (Arrays.equals(hash, entry.hash)) {
+                    entry = new Entry(file.length(), file.lastModified(), hash, entry.content);
+                    put(key, entry);
+
+                    return entry.content;
+                }
+            }
+        }
+
+        long length = file.length();
+        long lastModified = file.lastModified();
+        byte[] hash = hash(file);
+        byte[] content = parser.apply(file);
+
+        //Not kept when the file changed while being parsed, the tree may not be the one of the hash
+        if (content != null && file.length() == length && file.lastModified() == lastModified) {
+            put(key, new Entry(length, lastModified, hash, content));
+        }
+
+        return content;
+    }
+
+    private synchronized Entry memoryEntry(String key) {
+        return this.memory.get(key);
+    }
+
+    private synchronized void putMemory(String key, Entry entry) {
+        Entry previous = this.memory.put(key, entry);
+
+        if (previous != null) {
+            this.memoryBytes -= previous.content.length;
+        }
+
+        this.memoryBytes += entry.content.length;
+
+        for (Iterator<Entry> iterator = this.memory.values().iterator(); this.memoryBytes > this.maxMemoryBytes && iterator.hasNext(); ) {
+            this.memoryBytes -= iterator.next().content.length;
+            iterator.remove();
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        putMemory(key, entry);
+
+        if (this.directory == null) {
+            return;
+        }
+
+        Path path = diskPath(key);
+        Path temp = null;
+
+        try {
+            Files.createDirectories(this.directory);
+            temp = Files.createTempFile(this.directory, null, EXTENSION);
+
+            try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                stream.writeInt(VERSION);
+                stream.writeUTF(key);
+                stream.writeLong(entry.length);
+                stream.writeLong(entry.lastModified);
+                stream.writeInt(entry.hash.length);
+                stream.write(entry.hash);
+                stream.writeInt(entry.content.length);
+                stream.write(entry.content);
+            }
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+        } catch (IOException e) {
+            LOGGER.warn("Could not write cache {}: {} !", path, e.getMessage());
+        } finally {
+            deleteTemp(temp);
+        }
+    }
+
+    private static void deleteTemp(Path temp) {
+        if (temp != null) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete cache temp file {}: {} !", temp, e.getMessage());
+            }
+        }
+    }
+
+    private Entry diskEntry(String key) {
+        if (this.directory == null) {
+            return null;
+        }
+
+        Path path = diskPath(key);
+
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (stream.readInt() != VERSION || !key.equals(stream.readUTF())) {
+                return null;
+            }
+
+            long length = stream.readLong();
+            long lastModified = stream.readLong();
+            byte[] hash = new byte[stream.readInt()];
+            stream.readFully(hash);
+            byte[] content = new byte[stream.readInt()];
+            stream.readFully(content);
+
+            return new Entry(length, lastModified, hash, content);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read cache {}: {} !", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path diskPath(String key) {
+        return this.directory.resolve(HexFormat.of().formatHex(digest().digest(key.getBytes(StandardCharsets.UTF_8))) + EXTENSION);
+    }
+
+    private static byte[] hash(File file) {
+        MessageDigest digest = digest();
+
+        try (InputStream stream = Files.newInputStream(file.toPath())) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+
+            while ((read = stream.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            LOGGER.error("An error occurred while trying to read file {}: {} !", file.getAbsolutePath(), e.getMessage(), e);
+            throw new ClausewitzParseException(e);
+        }
+
+        return digest.digest();
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+ * Future of a parse running on an executor. Cancelling it interrupts the thread running the parse, the parsers check it each time they open an object.
+ * Cancelling a stage built from it does not reach the parse, like for any CompletableFuture.
+ */
+final class ParseFuture<T> extends CompletableFuture<T> {
+
+    static final Executor VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Object lock = new Object();
+
+    private Thread runner;
+
+    static <T> CompletableFuture<T> supply(Callable<T> parser, Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor is null");
+        }
+
+        ParseFuture<T> future = new ParseFuture<>();
+
+        try {
+            executor.execute(() -> future.run(parser));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    private void run(Callable<T> parser) {
+        synchronized (this.lock) {
+            if (isDone()) {
+                return;
+            }
+
+            this.runner = Thread.currentThread();
+        }
+
+        try {
+            complete(parser.call());
+        } catch (Throwable e) {
+            completeExceptionally(e);
+        } finally {
+            synchronized (this.lock) {
+                this.runner = null;
+                Thread.interrupted(); //A cancel while parsing must not reach the next task of the thread
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+        synchronized (this.lock) {
+            if (cancelled && this.runner != null) {
+                this.runner.interrupt();
+            }
+        }
+
+        return cancelled;
+    }
+}
@@ -0,0 +1,64 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * Paths of names separated by /, a * segment matches any name. An object is kept whole when its path starts with one of the paths, and kept with only
+ * the matching content when its path is the beginning of one of them.
+ */
+final class PathSelector {
+
+    enum Match {
+        NONE,
+        ANCESTOR,
+        FULL
+    }
+
+    private final List<String[]> paths = new ArrayList<>();
+
+    PathSelector(Collection<String> selectors) {
+        if (selectors == null) {
+            throw new NullPointerException("selectors is null");
+        }
+
+        for (String selector : selectors) {
+            this.paths.add(selector.split("/"));
+        }
+    }
+
+    //names[0..depth] is the path of the object, its parent is an ancestor of a path
+    Match match(List<String> names, String name) {
+        int length = names.size() + 1;
+        Match match = Match.NONE;
+
+        for (String[] path : this.paths) {
+            if (path.length < length || !matches(path, names, name)) {
+                continue;
+            }
+
+            if (path.length == length) {
+                return Match.FULL;
+            }
+
+            match = Match.ANCESTOR;
+        }
+
+        return match;
+    }
+
+    private static boolean matches(String[] path, List<String> names, String name) {
+        for (int i = 0; i < names.size(); i++) {
+            if (!matches(path[i], names.get(i))) {
+                return false;
+            }
+        }
+
+        return matches(path[names.size()], name);
+    }
+
+    private static boolean matches(String segment, String name) {
+        return "*".equals(segment) || segment.equals(name);
+    }
+}
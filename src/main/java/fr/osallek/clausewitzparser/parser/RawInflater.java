@@ -0,0 +1,428 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+
+/*
+ * Inflates raw deflate data to find the start of its blocks, which java.util.zip.Inflater does not expose. Used to build an InflateIndex, where only the
+ * length, the crc and the last 32K before each block are kept, and to read an entry from a checkpoint that is not on a byte boundary, as Inflater can
+ * only start on one.
+ */
+final class RawInflater {
+
+    static final int WINDOW_SIZE = 1 << 15;
+
+    private static final int MAX_COPY = 258;
+
+    private static final int[] LENGTH_BASE = {3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227,
+                                              258};
+
+    private static final int[] LENGTH_EXTRA = {0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0};
+
+    private static final int[] DISTANCE_BASE = {1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097,
+                                                6145, 8193, 12289, 16385, 24577};
+
+    private static final int[] DISTANCE_EXTRA = {0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13};
+
+    private static final int[] CODE_LENGTHS_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    private static final int[] FIXED_LITERALS;
+
+    private static final int[] FIXED_DISTANCES;
+
+    static {
+        int[] lengths = new int[288];
+        Arrays.fill(lengths, 0, 144, 8);
+        Arrays.fill(lengths, 144, 256, 9);
+        Arrays.fill(lengths, 256, 280, 7);
+        Arrays.fill(lengths, 280, 288, 8);
+        int[] distances = new int[30];
+        Arrays.fill(distances, 5);
+
+        try {
+            FIXED_LITERALS = table(lengths, 0, 288);
+            FIXED_DISTANCES = table(distances, 0, 30);
+        } catch (ZipException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface BlockListener {
+
+        //Called before each block, bit is the position in the input of its first bit
+        void block(RawInflater inflater, long bit, long out);
+    }
+
+    private final InputStream input;
+
+    private final byte[] inputBuffer = new byte[1 << 16];
+
+    private int inputPosition;
+
+    private int inputLength;
+
+    private long inputRead; //Bytes moved from the input to the bits
+
+    private long bits;
+
+    private int nbBits;
+
+    //Output, the last WINDOW_SIZE bytes are moved to the beginning when it is full
+    private final byte[] output = new byte[WINDOW_SIZE + (1 << 18)];
+
+    private int outputPosition;
+
+    private int outputChecked; //Start of the output not yet in the crc
+
+    private long outputBase; //Length of the output before the beginning of the buffer
+
+    private final CRC32 crc = new CRC32();
+
+    //State of the block being inflated, so inflating can stop when the output has enough bytes and continue later
+    private int[] literals; //Null between blocks
+
+    private int[] distances;
+
+    private int stored = -1; //Bytes left in the stored block being read, -1 if not in one
+
+    private boolean last;
+
+    private boolean finished;
+
+    RawInflater(InputStream input) {
+        this.input = input;
+    }
+
+    //Starts at a block that begins skipBits into the input, window being the output before it and out its length
+    RawInflater(InputStream input, int skipBits, byte[] window, long out) throws IOException {
+        this(input);
+        System.arraycopy(window, 0, this.output, 0, window.length);
+        this.outputPosition = window.length;
+        this.outputChecked = window.length;
+        this.outputBase = out - window.length;
+        bits(skipBits);
+    }
+
+    void inflate(BlockListener listener) throws IOException {
+        inflate(Integer.MAX_VALUE, listener);
+        this.crc.update(this.output, this.outputChecked, this.outputPosition - this.outputChecked);
+        this.outputChecked = this.outputPosition;
+    }
+
+    //Output from the block the inflater starts at. The bytes are only inflated when they are read
+    InputStream stream() {
+        return new InputStream() {
+
+            private int readPosition = RawInflater.this.outputPosition;
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+
+                if (this.readPosition == RawInflater.this.outputPosition) {
+                    if (RawInflater.this.outputPosition >= RawInflater.this.output.length - MAX_COPY) { //All read, only the window is kept
+                        shift();
+                        this.readPosition = RawInflater.this.outputPosition;
+                    }
+
+                    RawInflater.this.inflate(RawInflater.this.output.length - MAX_COPY, (i, bit, out) -> {});
+
+                    if (this.readPosition == RawInflater.this.outputPosition) {
+                        return -1;
+                    }
+                }
+
+                int length = Math.min(len, RawInflater.this.outputPosition - this.readPosition);
+                System.arraycopy(RawInflater.this.output, this.readPosition, b, off, length);
+                this.readPosition += length;
+
+                return length;
+            }
+
+            @Override
+            public void close() throws IOException {
+                RawInflater.this.input.close();
+            }
+        };
+    }
+
+    //Until the output reaches limit or the data ends. The output is not moved when limit leaves room for a copy after it
+    private void inflate(int limit, BlockListener listener) throws IOException {
+        while (!this.finished && this.outputPosition < limit) {
+            if (this.stored > 0) {
+                ensureOutput(1);
+                this.output[this.outputPosition++] = (byte) bits(8);
+                this.stored--;
+            } else if (this.stored == 0) {
+                this.stored = -1;
+                endBlock();
+            } else if (this.literals != null) {
+                code();
+            } else {
+                listener.block(this, this.inputRead * 8 - this.nbBits, this.outputBase + this.outputPosition);
+                this.last = bits(1) == 1;
+
+                switch (bits(2)) {
+                    case 0 -> stored();
+                    case 1 -> {
+                        this.literals = FIXED_LITERALS;
+                        this.distances = FIXED_DISTANCES;
+                    }
+                    case 2 -> dynamic();
+                    default -> throw new ZipException("Invalid deflate block type");
+                }
+            }
+        }
+    }
+
+    private void endBlock() {
+        this.literals = null;
+        this.distances = null;
+        this.finished = this.last;
+    }
+
+    long length() {
+        return this.outputBase + this.outputPosition;
+    }
+
+    long crc() {
+        return this.crc.getValue();
+    }
+
+    //Last bytes of the output, at most WINDOW_SIZE
+    byte[] window() {
+        int length = (int) Math.min(WINDOW_SIZE, length());
+
+        return Arrays.copyOfRange(this.output, this.outputPosition - length, this.outputPosition);
+    }
+
+    private void stored() throws IOException {
+        this.bits >>>= this.nbBits & 7; //Aligned on the next byte
+        this.nbBits -= this.nbBits & 7;
+
+        int length = bits(16);
+
+        if (length != (~bits(16) & 0xFFFF)) {
+            throw new ZipException("Invalid deflate stored block length");
+        }
+
+        this.stored = length;
+    }
+
+    private void dynamic() throws IOException {
+        int nbLiterals = bits(5) + 257;
+        int nbDistances = bits(5) + 1;
+        int nbCodeLengths = bits(4) + 4;
+
+        if (nbLiterals > 286 || nbDistances > 30) {
+            throw new ZipException("Invalid deflate code counts");
+        }
+
+        int[] codeLengths = new int[19];
+
+        for (int i = 0; i < nbCodeLengths; i++) {
+            codeLengths[CODE_LENGTHS_ORDER[i]] = bits(3);
+        }
+
+        int[] codeLengthsTable = table(codeLengths, 0, 19);
+        int[] lengths = new int[nbLiterals + nbDistances];
+        int index = 0;
+
+        while (index < lengths.length) {
+            int symbol = decode(codeLengthsTable);
+
+            if (symbol < 16) {
+                lengths[index++] = symbol;
+                continue;
+            }
+
+            int length = 0;
+            int repeat;
+
+            if (symbol == 16) {
+                if (index == 0) {
+                    throw new ZipException("Invalid deflate code lengths repeat");
+                }
+
+                length = lengths[index - 1];
+                repeat = 3 + bits(2);
+            } else if (symbol == 17) {
+                repeat = 3 + bits(3);
+            } else {
+                repeat = 11 + bits(7);
+            }
+
+            if (index + repeat > lengths.length) {
+                throw new ZipException("Invalid deflate code lengths repeat");
+            }
+
+            for (int i = 0; i < repeat; i++) {
+                lengths[index++] = length;
+            }
+        }
+
+        if (lengths[256] == 0) {
+            throw new ZipException("Missing deflate end of block code");
+        }
+
+        this.literals = table(lengths, 0, nbLiterals);
+        this.distances = table(lengths, nbLiterals, nbDistances);
+    }
+
+    private void code() throws IOException {
+        int symbol = decode(this.literals);
+
+        if (symbol < 256) {
+            ensureOutput(1);
+            this.output[this.outputPosition++] = (byte) symbol;
+        } else if (symbol == 256) {
+            endBlock();
+        } else {
+            symbol -= 257;
+
+            if (symbol >= LENGTH_BASE.length) {
+                throw new ZipException("Invalid deflate length code");
+            }
+
+            int length = LENGTH_BASE[symbol] + bits(LENGTH_EXTRA[symbol]);
+            symbol = decode(this.distances);
+
+            if (symbol >= DISTANCE_BASE.length) {
+                throw new ZipException("Invalid deflate distance code");
+            }
+
+            int distance = DISTANCE_BASE[symbol] + bits(DISTANCE_EXTRA[symbol]);
+
+            if (distance > length()) {
+                throw new ZipException("Invalid deflate distance");
+            }
+
+            ensureOutput(length);
+
+            for (int i = 0; i < length; i++, this.outputPosition++) {
+                this.output[this.outputPosition] = this.output[this.outputPosition - distance];
+            }
+        }
+    }
+
+    private void ensureOutput(int length) {
+        if (this.outputPosition + length > this.output.length) {
+            shift();
+        }
+    }
+
+    //Keeps only the last WINDOW_SIZE bytes of the output, at the beginning
+    private void shift() {
+        this.crc.update(this.output, this.outputChecked, this.outputPosition - this.outputChecked);
+        System.arraycopy(this.output, this.outputPosition - WINDOW_SIZE, this.output, 0, WINDOW_SIZE);
+        this.outputBase += this.outputPosition - WINDOW_SIZE;
+        this.outputPosition = WINDOW_SIZE;
+        this.outputChecked = WINDOW_SIZE;
+    }
+
+    private int decode(int[] table) throws IOException {
+        fill();
+
+        int entry = table[(int) this.bits & (table.length - 1)];
+        int length = entry & 0xF;
+
+        if (length == 0 || length > this.nbBits) {
+            throw new ZipException("Invalid deflate code");
+        }
+
+        this.bits >>>= length;
+        this.nbBits -= length;
+
+        return entry >>> 4;
+    }
+
+    private int bits(int nb) throws IOException {
+        if (this.nbBits < nb) {
+            fill();
+
+            if (this.nbBits < nb) {
+                throw new EOFException("Unexpected end of deflate data");
+            }
+        }
+
+        int value = (int) (this.bits & ((1L << nb) - 1));
+        this.bits >>>= nb;
+        this.nbBits -= nb;
+
+        return value;
+    }
+
+    private void fill() throws IOException {
+        while (this.nbBits <= 56) {
+            if (this.inputPosition == this.inputLength) {
+                this.inputLength = this.input.read(this.inputBuffer);
+                this.inputPosition = 0;
+
+                if (this.inputLength <= 0) {
+                    this.inputLength = 0;
+                    return;
+                }
+            }
+
+            this.bits |= (long) (this.inputBuffer[this.inputPosition++] & 0xFF) << this.nbBits;
+            this.nbBits += 8;
+            this.inputRead++;
+        }
+    }
+
+    //Indexed by the next bits of the input, the entry is symbol << 4 | code length, 0 for bits that are not a code
+    private static int[] table(int[] lengths, int offset, int count) throws ZipException {
+        int max = 0;
+        int[] nbByLength = new int[16];
+
+        for (int i = offset; i < offset + count; i++) {
+            max = Math.max(max, lengths[i]);
+            nbByLength[lengths[i]]++;
+        }
+
+        int[] table = new int[1 << max];
+        int[] nextCode = new int[16];
+        int code = 0;
+        nbByLength[0] = 0;
+
+        for (int length = 1; length < 16; length++) {
+            code = (code + nbByLength[length - 1]) << 1;
+            nextCode[length] = code;
+        }
+
+        for (int symbol = 0; symbol < count; symbol++) {
+            int length = lengths[offset + symbol];
+
+            if (length == 0) {
+                continue;
+            }
+
+            code = nextCode[length]++;
+
+            if (code >= 1 << length) {
+                throw new ZipException("Invalid deflate code lengths");
+            }
+
+            int reversed = Integer.reverse(code) >>> (32 - length); //Codes are read from their first bit
+
+            for (int i = reversed; i < table.length; i += 1 << length) {
+                table[i] = symbol << 4 | length;
+            }
+        }
+
+        return table;
+    }
+}
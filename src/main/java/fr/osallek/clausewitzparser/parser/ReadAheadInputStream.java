@@ -0,0 +1,280 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/*
+ * Content of a zip entry, read and inflated by a virtual thread into a ring of buffers while the previous ones are parsed. The compressed data is read
+ * with a FileChannel and inflated between direct buffers, the reader only copies the inflated bytes it asks for. Direct memory is only freed by the GC,
+ * so the buffers are given back to a pool on close, and small entries are read by ZipFile.
+ */
+final class ReadAheadInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final int NB_BUFFERS = 4;
+
+    private static final int INPUT_SIZE = 1 << 16;
+
+    private static final long MIN_SIZE = 4L * BUFFER_SIZE; //Smaller entries are read before read-ahead would help
+
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(4 * NB_BUFFERS);
+
+    private static final BlockingQueue<ByteBuffer> INPUTS = new ArrayBlockingQueue<>(4);
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(NB_BUFFERS);
+
+    private final BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(NB_BUFFERS + 1);
+
+    private final Thread producer;
+
+    private volatile Throwable error;
+
+    private ByteBuffer current;
+
+    private boolean closed;
+
+    private ReadAheadInputStream(FileChannel channel, ZipEntry zipEntry, long dataOffset) {
+        try {
+            for (int i = 0; i < NB_BUFFERS; i++) {
+                this.free.add(buffer(BUFFERS, BUFFER_SIZE));
+            }
+        } catch (Throwable e) {
+            recycle(this.free, BUFFERS);
+            throw e;
+        }
+
+        this.producer = Thread.ofVirtual().name("read-ahead-" + zipEntry.getName()).start(() -> produce(channel, zipEntry, dataOffset));
+    }
+
+    /*
+     * Falls back to the stream of the zip when the entry can't be read from the file of the zip, like in a zip64, or when the file is not the one the zip
+     * was opened from anymore: deleted, replaced, or opened with OPEN_DELETE.
+     */
+    static InputStream open(ZipFile zipFile, ZipEntry zipEntry) throws IOException {
+        if ((zipEntry.getMethod() == ZipEntry.DEFLATED || zipEntry.getMethod() == ZipEntry.STORED) && zipEntry.getSize() >= MIN_SIZE) {
+            FileChannel channel = null;
+            long dataOffset = -1;
+
+            try {
+                channel = FileChannel.open(new File(zipFile.getName()).toPath(), StandardOpenOption.READ);
+                dataOffset = InflateIndex.dataOffset(channel, zipEntry.getName(), zipEntry);
+            } catch (IOException e) {
+                //Read by ZipFile
+            }
+
+            if (dataOffset >= 0) {
+                try {
+                    return new ReadAheadInputStream(channel, zipEntry, dataOffset);
+                } catch (Throwable e) {
+                    channel.close();
+                    throw e;
+                }
+            } else if (channel != null) {
+                channel.close();
+            }
+        }
+
+        return zipFile.getInputStream(zipEntry);
+    }
+
+    private void produce(FileChannel fileChannel, ZipEntry zipEntry, long dataOffset) {
+        try (FileChannel channel = fileChannel) {
+            if (zipEntry.getMethod() == ZipEntry.STORED) {
+                copy(channel, dataOffset, zipEntry.getSize());
+            } else {
+                inflate(channel, dataOffset, zipEntry.getCompressedSize());
+            }
+        } catch (InterruptedException e) {
+            //Closed
+        } catch (Throwable e) {
+            this.error = e;
+        } finally {
+            this.filled.add(END); //Never full, there is a place for END after the buffers. The reader must always get it, else it waits forever
+        }
+    }
+
+    private void copy(FileChannel channel, long position, long size) throws IOException, InterruptedException {
+        long end = position + size;
+
+        while (position < end) {
+            ByteBuffer buffer = this.free.take().clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of zip entry");
+                }
+
+                position += read;
+            }
+
+            this.filled.put(buffer.flip());
+        }
+    }
+
+    private void inflate(FileChannel channel, long position, long compressedSize) throws IOException, InterruptedException {
+        ByteBuffer input = buffer(INPUTS, INPUT_SIZE);
+        long end = position + compressedSize;
+        boolean padded = false;
+        Inflater inflater = new Inflater(true);
+
+        try {
+            while (!inflater.finished()) {
+                ByteBuffer buffer = this.free.take().clear();
+
+                while (buffer.hasRemaining() && !inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        input.clear();
+
+                        if (position < end) {
+                            input.limit((int) Math.min(input.capacity(), end - position));
+                            int read = channel.read(input, position);
+
+                            if (read < 0) {
+                                throw new EOFException("Unexpected end of zip entry");
+                            }
+
+                            position += read;
+                        } else if (!padded) {
+                            input.put((byte) 0); //Raw inflate may need a byte after the data to finish, like ZipFile does
+                            padded = true;
+                        } else {
+                            throw new EOFException("Unexpected end of zip entry");
+                        }
+
+                        inflater.setInput(input.flip());
+                    }
+
+                    if (inflater.inflate(buffer) == 0 && !inflater.needsInput() && !inflater.finished()) {
+                        throw new ZipException("Invalid deflate data");
+                    }
+                }
+
+                this.filled.put(buffer.flip());
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+            INPUTS.offer(input);
+        }
+    }
+
+    private boolean next() throws IOException {
+        if (this.current == END) {
+            return false;
+        }
+
+        if (this.current != null && this.current.hasRemaining()) {
+            return true;
+        }
+
+        if (this.current != null) {
+            this.free.add(this.current);
+        }
+
+        try {
+            this.current = this.filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+
+        if (this.current == END) {
+            switch (this.error) {
+                case null -> {}
+                case IOException e -> throw e;
+                case RuntimeException e -> throw e;
+                case Error e -> throw e;
+                default -> throw new IOException(this.error);
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return next() ? this.current.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!next()) {
+            return -1;
+        }
+
+        int length = Math.min(len, this.current.remaining());
+        this.current.get(b, off, length);
+
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return this.current == null || this.current == END ? 0 : this.current.remaining();
+    }
+
+    //The buffers are given back once the producer stopped using them
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.producer.interrupt();
+
+        try {
+            this.producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; //Left to the GC
+        }
+
+        if (this.current != null && this.current != END) {
+            BUFFERS.offer(this.current.clear());
+        }
+
+        this.current = END;
+        this.filled.remove(END);
+        recycle(this.filled, BUFFERS);
+        recycle(this.free, BUFFERS);
+    }
+
+    private static ByteBuffer buffer(BlockingQueue<ByteBuffer> pool, int size) {
+        ByteBuffer buffer = pool.poll();
+
+        return buffer == null ? ByteBuffer.allocateDirect(size) : buffer.clear();
+    }
+
+    private static void recycle(BlockingQueue<ByteBuffer> buffers, BlockingQueue<ByteBuffer> pool) {
+        for (ByteBuffer buffer = buffers.poll(); buffer != null; buffer = buffers.poll()) {
+            pool.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.common.ClausewitzUtils;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Read only view of an item of a TreeSnapshot, with the getters of ClausewitzItem. Nothing is read before it is asked for, each lookup is a binary search
+ * in the sorted entries of the node.
+ */
+public final class SnapshotItem {
+
+    private final TreeSnapshot snapshot;
+
+    private final int offset;
+
+    SnapshotItem(TreeSnapshot snapshot, int offset) {
+        this.snapshot = snapshot;
+        this.offset = offset;
+    }
+
+    public String getName() {
+        return this.snapshot.string(buffer().getInt(this.offset));
+    }
+
+    public boolean isHasEquals() {
+        return (buffer().getInt(this.offset + 4) & TreeSnapshot.HAS_EQUALS) != 0;
+    }
+
+    public boolean isSameLine() {
+        return (buffer().getInt(this.offset + 4) & TreeSnapshot.SAME_LINE) != 0;
+    }
+
+    public int getNbObjects() {
+        return buffer().getInt(this.offset + 8);
+    }
+
+    public SnapshotItem getChild(String childName) {
+        int entry = first(TreeSnapshot.ITEM, childName);
+
+        return entry < 0 ? null : new SnapshotItem(this.snapshot, (int) value(entry));
+    }
+
+    public boolean hasChild(String childName) {
+        return first(TreeSnapshot.ITEM, childName) >= 0;
+    }
+
+    public List<SnapshotItem> getChildren(String childName) {
+        List<SnapshotItem> children = new ArrayList<>();
+
+        for (int entry : all(TreeSnapshot.ITEM, childName)) {
+            children.add(new SnapshotItem(this.snapshot, (int) value(entry)));
+        }
+
+        return children;
+    }
+
+    public List<SnapshotItem> getChildren() {
+        List<SnapshotItem> children = new ArrayList<>();
+
+        for (int i = 0; i < getNbObjects(); i++) {
+            if (kind(i) == TreeSnapshot.ITEM) {
+                children.add(new SnapshotItem(this.snapshot, (int) value(i)));
+            }
+        }
+
+        return children;
+    }
+
+    public SnapshotList getList(String listName) {
+        int entry = first(TreeSnapshot.LIST, listName);
+
+        return entry < 0 ? null : new SnapshotList(this.snapshot, (int) value(entry), listName);
+    }
+
+    public boolean hasList(String listName) {
+        return first(TreeSnapshot.LIST, listName) >= 0;
+    }
+
+    public List<SnapshotList> getLists(String listName) {
+        List<SnapshotList> lists = new ArrayList<>();
+
+        for (int entry : all(TreeSnapshot.LIST, listName)) {
+            lists.add(new SnapshotList(this.snapshot, (int) value(entry), listName));
+        }
+
+        return lists;
+    }
+
+    public boolean hasVar(String varName) {
+        return first(TreeSnapshot.VARIABLE, varName) >= 0;
+    }
+
+    public String getVarAsString(String varName) {
+        int entry = first(TreeSnapshot.VARIABLE, varName);
+
+        return entry < 0 ? null : varAsString(entry);
+    }
+
+    public List<String> getVarsAsStrings(String varName) {
+        List<String> values = new ArrayList<>();
+
+        for (int entry : all(TreeSnapshot.VARIABLE, varName)) {
+            values.add(varAsString(entry));
+        }
+
+        return values;
+    }
+
+    public Integer getVarAsInt(String varName) {
+        int entry = first(TreeSnapshot.VARIABLE, varName);
+
+        if (entry < 0) {
+            return null;
+        }
+
+        ClausewitzValueType type = type(entry);
+
+        if (type != null && type.isInt(value(entry))) {
+            return (int) value(entry);
+        }
+
+        String s = varAsString(entry);
+
+        return ClausewitzUtils.isNotBlank(s) ? Integer.parseInt(ClausewitzUtils.removeQuotes(s)) : null;
+    }
+
+    public Long getVarAsLong(String varName) {
+        int entry = first(TreeSnapshot.VARIABLE, varName);
+
+        if (entry < 0) {
+            return null;
+        }
+
+        ClausewitzValueType type = type(entry);
+
+        if (type != null && type.isLong(value(entry))) {
+            return value(entry);
+        }
+
+        String s = varAsString(entry);
+
+        return ClausewitzUtils.isNotBlank(s) ? Long.parseLong(ClausewitzUtils.removeQuotes(s)) : null;
+    }
+
+    public Double getVarAsDouble(String varName) {
+        int entry = first(TreeSnapshot.VARIABLE, varName);
+
+        if (entry < 0) {
+            return null;
+        }
+
+        ClausewitzValueType type = type(entry);
+
+        if (type != null && type.isDouble(value(entry))) {
+            return type.toDouble(value(entry));
+        }
+
+        String s = varAsString(entry);
+
+        return ClausewitzUtils.isNotBlank(s) ? Double.parseDouble(ClausewitzUtils.removeQuotes(s)) : null;
+    }
+
+    public Boolean getVarAsBool(String varName) {
+        int entry = first(TreeSnapshot.VARIABLE, varName);
+
+        if (entry < 0) {
+            return null;
+        }
+
+        ClausewitzValueType type = type(entry);
+
+        if (ClausewitzValueType.BOOL == type) {
+            return value(entry) != 0;
+        }
+
+        String s = varAsString(entry);
+
+        return ClausewitzUtils.isNotBlank(s) ? "yes".equals(ClausewitzUtils.removeQuotes(s)) : null;
+    }
+
+    public LocalDate getVarAsDate(String varName) {
+        int entry = first(TreeSnapshot.VARIABLE, varName);
+
+        if (entry < 0) {
+            return null;
+        }
+
+        ClausewitzValueType type = type(entry);
+
+        try {
+            if (type != null && type.isLong(value(entry))) {
+                return ClausewitzUtils.hoursToDate(value(entry));
+            }
+
+            String s = varAsString(entry);
+
+            return ClausewitzUtils.isNotBlank(s) ? ClausewitzUtils.stringToDate(ClausewitzUtils.removeQuotes(s)) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private ByteBuffer buffer() {
+        return this.snapshot.buffer();
+    }
+
+    private int entryOffset(int entry) {
+        return this.offset + TreeSnapshot.ITEM_HEADER_SIZE + entry * TreeSnapshot.ENTRY_SIZE;
+    }
+
+    private byte kind(int entry) {
+        return buffer().get(entryOffset(entry));
+    }
+
+    private ClausewitzValueType type(int entry) {
+        int ordinal = buffer().get(entryOffset(entry) + 1);
+
+        return ordinal < 0 ? null : TreeSnapshot.TYPES[ordinal];
+    }
+
+    private int nameRef(int entry) {
+        return buffer().getInt(entryOffset(entry) + 4);
+    }
+
+    private long value(int entry) {
+        return buffer().getLong(entryOffset(entry) + 8);
+    }
+
+    private String varAsString(int entry) {
+        ClausewitzValueType type = type(entry);
+
+        return type != null ? type.format(value(entry)) : this.snapshot.string((int) value(entry));
+    }
+
+    private int sorted(int index) {
+        return buffer().getInt(entryOffset(getNbObjects()) + index * 4);
+    }
+
+    private int compare(int index, byte kind, byte[] name) {
+        int entry = sorted(index);
+        int c = Byte.compare(kind(entry), kind);
+
+        return c != 0 ? c : this.snapshot.compare(nameRef(entry), name);
+    }
+
+    //Index in the sorted entries of the first one with this kind and name, the entries with the same name are in order
+    private int lowerBound(byte kind, byte[] name) {
+        int low = 0;
+        int high = getNbObjects();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (compare(middle, kind, name) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private int first(byte kind, String name) {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        int index = lowerBound(kind, bytes);
+
+        return index < getNbObjects() && compare(index, kind, bytes) == 0 ? sorted(index) : -1;
+    }
+
+    private List<Integer> all(byte kind, String name) {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        List<Integer> entries = new ArrayList<>();
+
+        for (int index = lowerBound(kind, bytes); index < getNbObjects() && compare(index, kind, bytes) == 0; index++) {
+            entries.add(sorted(index));
+        }
+
+        return entries;
+    }
+}
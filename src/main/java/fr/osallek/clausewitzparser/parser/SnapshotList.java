@@ -0,0 +1,122 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.common.ClausewitzUtils;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Read only view of a list of a TreeSnapshot, with the getters of ClausewitzList.
+ */
+public final class SnapshotList {
+
+    private final TreeSnapshot snapshot;
+
+    private final int offset;
+
+    private final String name;
+
+    SnapshotList(TreeSnapshot snapshot, int offset, String name) {
+        this.snapshot = snapshot;
+        this.offset = offset;
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isSameLine() {
+        return (this.snapshot.buffer().getInt(this.offset) & TreeSnapshot.SAME_LINE) != 0;
+    }
+
+    public boolean isHasBrackets() {
+        return (this.snapshot.buffer().getInt(this.offset) & TreeSnapshot.HAS_BRACKETS) != 0;
+    }
+
+    public ClausewitzValueType getType() {
+        int ordinal = this.snapshot.buffer().getInt(this.offset + 4);
+
+        return ordinal < 0 ? null : TreeSnapshot.TYPES[ordinal];
+    }
+
+    public int size() {
+        return this.snapshot.buffer().getInt(this.offset + 8);
+    }
+
+    //Only meaningful when getType() is not null
+    public long getRaw(int id) {
+        return this.snapshot.buffer().getLong(this.offset + TreeSnapshot.LIST_HEADER_SIZE + id * 8);
+    }
+
+    public String get(int id) {
+        if (id < 0 || id >= size()) {
+            return null;
+        }
+
+        ClausewitzValueType type = getType();
+
+        if (type != null) {
+            return type.format(getRaw(id));
+        }
+
+        return this.snapshot.string(this.snapshot.buffer().getInt(this.offset + TreeSnapshot.LIST_HEADER_SIZE + id * 4));
+    }
+
+    public Integer getAsInt(int id) {
+        ClausewitzValueType type = getType();
+
+        if (type != null && id >= 0 && id < size() && type.isInt(getRaw(id))) {
+            return (int) getRaw(id);
+        }
+
+        String s = get(id);
+
+        return ClausewitzUtils.isNotBlank(s) ? Integer.parseInt(s) : null;
+    }
+
+    public Double getAsDouble(int id) {
+        ClausewitzValueType type = getType();
+
+        if (type != null && id >= 0 && id < size() && type.isDouble(getRaw(id))) {
+            return type.toDouble(getRaw(id));
+        }
+
+        String s = get(id);
+
+        return ClausewitzUtils.isNotBlank(s) ? Double.parseDouble(s) : null;
+    }
+
+    public Boolean getAsBool(int id) {
+        String s = get(id);
+
+        return ClausewitzUtils.isNotBlank(s) ? "yes".equals(s) : null;
+    }
+
+    public LocalDate getAsDate(int id) {
+        String s = get(id);
+
+        if (ClausewitzUtils.isNotBlank(s)) {
+            try {
+                return ClausewitzUtils.stringToDate(ClausewitzUtils.removeQuotes(s));
+            } catch (DateTimeException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+    }
+
+    public List<String> getValues() {
+        List<String> values = new ArrayList<>(size());
+
+        for (int i = 0; i < size(); i++) {
+            values.add(get(i));
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,202 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class TextClausewitzReader extends ClausewitzReader {
+
+    private final TextSource reader;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<Integer> parentsNewLines = new ArrayList<>(); //Newlines read so far in each parent of the current object
+
+    private int newLines; //Newlines read in the current object, not in its children
+
+    private int closedNewLines;
+
+    private String name;
+
+    private String value;
+
+    private boolean hasEquals;
+
+    TextClausewitzReader(TextSource reader, int skip) {
+        if (reader == null) {
+            throw new NullPointerException("reader is null");
+        }
+
+        this.reader = reader;
+
+        for (int i = 1; i <= skip; i++) {
+            reader.skipLine();
+        }
+    }
+
+    @Override
+    public Token next() {
+        if (Token.END_DOCUMENT == this.currentToken) {
+            return this.currentToken;
+        }
+
+        this.name = null;
+        this.value = null;
+        this.hasEquals = false;
+
+        int letter;
+        while ((letter = this.reader.read()) > 0) {
+            if ('\n' == letter) {
+                this.newLines++;
+                continue;
+            }
+
+            if (isBlank(letter) || '=' == letter) {
+                continue;
+            }
+
+            if ('#' == letter) {
+                this.reader.skipTillNext('#', true);
+                continue;
+            }
+
+            if ('{' == letter) {
+                return startObject("", false);
+            }
+
+            if ('}' == letter) {
+                if (this.names.isEmpty()) { //Stray closing brace, as readObject stops there
+                    break;
+                }
+
+                this.name = this.names.removeLast();
+                endObject();
+
+                return this.currentToken = Token.END_OBJECT;
+            }
+
+            String string = '"' == letter ? this.reader.readQuoted(true).trim() : this.reader.readStringOrNumber(letter);
+            int position = this.reader.position();
+            int newLines = this.newLines;
+            int next = nextNonBlank();
+
+            if ('{' == next) {
+                return startObject(string, false);
+            }
+
+            if ('=' == next) {
+                next = nextNonBlank();
+
+                if ('{' == next) {
+                    return startObject(string, true);
+                }
+
+                if (next > 0) {
+                    this.name = string;
+                    this.value = '"' == next ? this.reader.readQuoted(true) : this.reader.readStringOrNumber(next);
+
+                    return this.currentToken = Token.VARIABLE;
+                }
+            }
+
+            this.reader.position(position);
+            this.newLines = newLines; //Read again by the next call
+            this.value = string;
+
+            return this.currentToken = Token.VALUE;
+        }
+
+        this.names.clear();
+        this.parentsNewLines.clear();
+
+        return this.currentToken = Token.END_DOCUMENT;
+    }
+
+    private Token startObject(String name, boolean hasEquals) {
+        this.name = name;
+        this.hasEquals = hasEquals;
+        this.names.add(name);
+        this.parentsNewLines.add(this.newLines);
+        this.newLines = 0;
+
+        return this.currentToken = Token.START_OBJECT;
+    }
+
+    private void endObject() {
+        this.closedNewLines = this.newLines;
+        this.newLines = this.parentsNewLines.removeLast();
+    }
+
+    private int nextNonBlank() {
+        int letter;
+
+        while ((letter = this.reader.read()) > 0 && isBlank(letter)) {
+            if ('\n' == letter) {
+                this.newLines++;
+            }
+        }
+
+        return letter;
+    }
+
+    private static boolean isBlank(int letter) {
+        return letter == ' ' || letter == '\t' || letter == '\r' || letter == '\n';
+    }
+
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public String value() {
+        return this.value;
+    }
+
+    @Override
+    public boolean hasEquals() {
+        return this.hasEquals;
+    }
+
+    @Override
+    public int depth() {
+        return this.names.size();
+    }
+
+    @Override
+    public int newLines() {
+        return this.closedNewLines;
+    }
+
+    @Override
+    public void skipValue() {
+        if (Token.START_OBJECT != this.currentToken) {
+            return;
+        }
+
+        int depth = 1;
+        int letter;
+
+        while ((letter = this.reader.read()) > 0) {
+            if ('"' == letter) {
+                this.reader.skipTillNext('"', false);
+                this.reader.read();
+            } else if ('#' == letter) {
+                this.reader.skipTillNext('#', true);
+            } else if ('{' == letter) {
+                depth++;
+            } else if ('}' == letter && --depth == 0) {
+                this.name = this.names.removeLast();
+                endObject();
+                this.value = null;
+                this.hasEquals = false;
+                this.currentToken = Token.END_OBJECT;
+
+                return;
+            }
+        }
+
+        this.names.clear();
+        this.parentsNewLines.clear();
+        this.currentToken = Token.END_DOCUMENT;
+    }
+}
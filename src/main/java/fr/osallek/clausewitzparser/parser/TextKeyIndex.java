@@ -0,0 +1,144 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+
+/*
+ * Positions of the top level keys of a text file, built by ClausewitzParser.index(...). Positions are those of the TextSource opened with the charset
+ * of the index. Can be saved next to the file and is only valid as long as the file keeps the same length and last modified date. For a zip entry
+ * they are positions in the inflated bytes of the entry.
+ */
+public final class TextKeyIndex {
+
+    private static final int VERSION = 1;
+
+    public static final String EXTENSION = ".idx";
+
+    private final Charset charset;
+
+    private final long length;
+
+    private final long lastModified;
+
+    private final Map<String, int[]> positions;
+
+    TextKeyIndex(Charset charset, long length, long lastModified, Map<String, List<Integer>> positions) {
+        this.charset = charset;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.positions = new HashMap<>(positions.size() * 2);
+        positions.forEach((key, list) -> this.positions.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    private TextKeyIndex(Charset charset, long length, long lastModified, HashMap<String, int[]> positions) {
+        this.charset = charset;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.positions = positions;
+    }
+
+    public static File sidecar(File file) {
+        return new File(file.getPath() + EXTENSION);
+    }
+
+    public static TextKeyIndex read(File indexFile) throws IOException {
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (stream.readInt() != VERSION) {
+                throw new IOException("Unknown index version in " + indexFile.getAbsolutePath());
+            }
+
+            Charset charset = Charset.forName(stream.readUTF());
+            long length = stream.readLong();
+            long lastModified = stream.readLong();
+            int nbKeys = stream.readInt();
+            HashMap<String, int[]> positions = new HashMap<>(nbKeys * 2);
+
+            for (int i = 0; i < nbKeys; i++) {
+                String key = stream.readUTF();
+                int[] keyPositions = new int[stream.readInt()];
+
+                for (int j = 0; j < keyPositions.length; j++) {
+                    keyPositions[j] = stream.readInt();
+                }
+
+                positions.put(key, keyPositions);
+            }
+
+            return new TextKeyIndex(charset, length, lastModified, positions);
+        }
+    }
+
+    public void write(File indexFile) throws IOException {
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            stream.writeInt(VERSION);
+            stream.writeUTF(this.charset.name());
+            stream.writeLong(this.length);
+            stream.writeLong(this.lastModified);
+            stream.writeInt(this.positions.size());
+
+            for (Map.Entry<String, int[]> entry : this.positions.entrySet()) {
+                stream.writeUTF(entry.getKey());
+                stream.writeInt(entry.getValue().length);
+
+                for (int position : entry.getValue()) {
+                    stream.writeInt(position);
+                }
+            }
+        }
+    }
+
+    public boolean isValidFor(File file) {
+        return file.length() == this.length && file.lastModified() == this.lastModified;
+    }
+
+    public boolean isValidFor(ZipEntry zipEntry) {
+        return zipEntry.getSize() == this.length && zipEntry.getTime() == this.lastModified;
+    }
+
+    public Charset charset() {
+        return this.charset;
+    }
+
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(this.positions.keySet());
+    }
+
+    public boolean contains(String key) {
+        return this.positions.containsKey(key);
+    }
+
+    //Positions of each occurrence of the key, in file order
+    public int[] positions(String key) {
+        int[] keyPositions = this.positions.get(key);
+
+        return keyPositions == null ? new int[0] : keyPositions.clone();
+    }
+
+    //First position of any of the keys, -1 if none
+    public int first(List<String> keys) {
+        int first = -1;
+
+        for (String key : keys) {
+            int[] keyPositions = this.positions.get(key);
+
+            if (keyPositions != null && (first < 0 || keyPositions[0] < first)) {
+                first = keyPositions[0];
+            }
+        }
+
+        return first;
+    }
+}
@@ -0,0 +1,61 @@
+package fr.osallek.clausewitzparser.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+
+public interface TextSource {
+
+    static TextSource of(File file, Charset charset) throws IOException {
+        if (ByteArray.supports(charset)) {
+            return ByteArray.of(file, charset);
+        }
+
+        return new CharArray(file, charset);
+    }
+
+    static TextSource of(ByteBuffer bytes, Charset charset) throws CharacterCodingException {
+        if (ByteArray.supports(charset)) {
+            return new ByteArray(bytes, charset);
+        }
+
+        return new CharArray(bytes, charset);
+    }
+
+    void reset();
+
+    void mark();
+
+    int position();
+
+    void position(int position);
+
+    void addPosition(int position);
+
+    int available();
+
+    int read();
+
+    String readLine();
+
+    void skipLine();
+
+    String readQuoted(boolean keepQuotes);
+
+    String readString(int firstChar);
+
+    String readStringOrNumber(int firstChar);
+
+    void readEndOfLine();
+
+    void skipTillNext(int stopChar, boolean stopEndOfLine);
+
+    Number readNumber(int... firstChar);
+
+    long length();
+
+    //Independent reader over [from, to) of the same data
+    TextSource slice(int from, int to);
+}
@@ -0,0 +1,243 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.ClausewitzItem;
+import fr.osallek.clausewitzparser.model.ClausewitzList;
+import fr.osallek.clausewitzparser.model.ClausewitzObject;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+import fr.osallek.clausewitzparser.model.ClausewitzVariable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Trees and Lua tables as bytes, for ParseCache. Reading them back builds the same tree as the parser did, without lexing: objects in the same order,
+ * typed values still typed.
+ */
+final class TreeCodec {
+
+    private static final int ITEM = 0;
+
+    private static final int VARIABLE = 1;
+
+    private static final int LIST = 2;
+
+    private static final int STRING = 0;
+
+    private static final int INTEGER = 1;
+
+    private static final int DOUBLE = 2;
+
+    private static final int MAP = 3;
+
+    private static final ClausewitzValueType[] TYPES = ClausewitzValueType.values();
+
+    private TreeCodec() {}
+
+    static byte[] write(ClausewitzItem root) {
+        return write(stream -> writeItem(root, stream));
+    }
+
+    static byte[] write(Map<String, Object> map) {
+        return write(stream -> writeMap(map, stream));
+    }
+
+    static ClausewitzItem readItem(byte[] bytes) {
+        try (DataInputStream stream = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            ClausewitzItem root = new ClausewitzItem();
+            readContent(root, stream);
+
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<String, Object> readMap(byte[] bytes) {
+        try (DataInputStream stream = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return readMap(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Writer {
+
+        void write(DataOutputStream stream) throws IOException;
+    }
+
+    private static byte[] write(Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 12);
+
+        try (DataOutputStream stream = new DataOutputStream(bytes)) {
+            writer.write(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeItem(ClausewitzItem item, DataOutputStream stream) throws IOException {
+        stream.writeBoolean(item.isSameLine());
+        stream.writeInt(item.getNbObjects());
+
+        for (ClausewitzObject object : item.getAllOrderedView()) {
+            if (object instanceof ClausewitzItem child) {
+                stream.writeByte(ITEM);
+                writeString(child.getName(), stream);
+                stream.writeBoolean(child.isHasEquals());
+                writeItem(child, stream);
+            } else if (object instanceof ClausewitzVariable variable) {
+                stream.writeByte(VARIABLE);
+                writeString(variable.getName(), stream);
+                writeType(variable.getType(), stream);
+
+                if (variable.getType() != null) {
+                    stream.writeLong(variable.getRaw());
+                } else {
+                    writeString(variable.getValue(), stream);
+                }
+            } else if (object instanceof ClausewitzList list) {
+                stream.writeByte(LIST);
+                writeString(list.getName(), stream);
+                stream.writeBoolean(list.isSameLine());
+                stream.writeBoolean(list.isHasBrackets());
+                writeType(list.getType(), stream);
+                stream.writeInt(list.size());
+
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.getType() != null) {
+                        stream.writeLong(list.getRaw(i));
+                    } else {
+                        writeString(list.get(i), stream);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void readContent(ClausewitzItem item, DataInputStream stream) throws IOException {
+        item.setSameLine(stream.readBoolean());
+        int nbObjects = stream.readInt();
+
+        for (int i = 0; i < nbObjects; i++) {
+            switch (stream.readByte()) {
+                case ITEM -> {
+                    String name = readString(stream);
+                    readContent(item.addChild(name, stream.readBoolean()), stream);
+                }
+                case VARIABLE -> {
+                    String name = readString(stream);
+                    ClausewitzValueType type = readType(stream);
+                    item.addVariable(type != null ? new ClausewitzVariable(name, 0, type, stream.readLong()) : new ClausewitzVariable(name, 0, readString(stream)));
+                }
+                case LIST -> {
+                    String name = readString(stream);
+                    boolean sameLine = stream.readBoolean();
+                    boolean hasBrackets = stream.readBoolean();
+                    ClausewitzValueType type = readType(stream);
+                    int size = stream.readInt();
+                    ClausewitzList list = new ClausewitzList(item, name, 0, sameLine, hasBrackets);
+
+                    for (int j = 0; j < size; j++) {
+                        if (type != null) {
+                            list.add(type, stream.readLong());
+                        } else {
+                            list.add(readString(stream));
+                        }
+                    }
+                }
+                default -> throw new IOException("Unknown object in cached tree");
+            }
+        }
+    }
+
+    private static void writeMap(Map<?, ?> map, DataOutputStream stream) throws IOException {
+        stream.writeInt(map.size());
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeString(String.valueOf(entry.getKey()), stream);
+
+            switch (entry.getValue()) {
+                case String s -> {
+                    stream.writeByte(STRING);
+                    writeString(s, stream);
+                }
+                case Integer i -> {
+                    stream.writeByte(INTEGER);
+                    stream.writeInt(i);
+                }
+                case Double d -> {
+                    stream.writeByte(DOUBLE);
+                    stream.writeDouble(d);
+                }
+                case Map<?, ?> m -> {
+                    stream.writeByte(MAP);
+                    writeMap(m, stream);
+                }
+                case null, default -> throw new IOException("Can't cache value " + entry.getValue() + " of " + entry.getKey());
+            }
+        }
+    }
+
+    private static Map<String, Object> readMap(DataInputStream stream) throws IOException {
+        int size = stream.readInt();
+        Map<String, Object> map = new LinkedHashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            String key = readString(stream);
+
+            switch (stream.readByte()) {
+                case STRING -> map.put(key, readString(stream));
+                case INTEGER -> map.put(key, stream.readInt());
+                case DOUBLE -> map.put(key, stream.readDouble());
+                case MAP -> map.put(key, readMap(stream));
+                default -> throw new IOException("Unknown value in cached table");
+            }
+        }
+
+        return map;
+    }
+
+    private static void writeType(ClausewitzValueType type, DataOutputStream stream) throws IOException {
+        stream.writeByte(type == null ? -1 : type.ordinal());
+    }
+
+    private static ClausewitzValueType readType(DataInputStream stream) throws IOException {
+        int ordinal = stream.readByte();
+
+        return ordinal < 0 ? null : TYPES[ordinal];
+    }
+
+    //writeUTF is limited to 64K
+    private static void writeString(String s, DataOutputStream stream) throws IOException {
+        if (s == null) {
+            stream.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static String readString(DataInputStream stream) throws IOException {
+        int length = stream.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        stream.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
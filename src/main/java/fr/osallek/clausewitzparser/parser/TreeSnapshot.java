@@ -0,0 +1,291 @@
+package fr.osallek.clausewitzparser.parser;
+
+import fr.osallek.clausewitzparser.model.ClausewitzItem;
+import fr.osallek.clausewitzparser.model.ClausewitzList;
+import fr.osallek.clausewitzparser.model.ClausewitzObject;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
+import fr.osallek.clausewitzparser.model.ClausewitzVariable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Tree written once in a file that is read in place: the file is mapped and the views only read the nodes they are asked for, so JVMs reading the same
+ * file share the pages of the OS cache instead of each building the tree.
+ *
+ * Layout, big endian:
+ *  header: magic, version, offset of the root node, offset of the string pool
+ *  item node: name, flags, number of objects, then per object in order a 16 bytes entry (kind, value type, name, value), then the indexes of the
+ *             entries sorted by kind, name and order for the lookups
+ *  list node: flags, value type, size, then the raw values (8 bytes) when typed or the strings (4 bytes)
+ *  string pool: per distinct string its length and UTF-8 bytes, a string is the offset of its length in the pool, -1 for null
+ *  entry value: offset of the node for items and lists, raw value for typed variables, string for the others
+ */
+public final class TreeSnapshot {
+
+    static final int MAGIC = 0x43575354; //CWST
+
+    private static final int VERSION = 1;
+
+    public static final String EXTENSION = ".snap";
+
+    static final int HEADER_SIZE = 16;
+
+    static final int ITEM_HEADER_SIZE = 12;
+
+    static final int LIST_HEADER_SIZE = 12;
+
+    static final int ENTRY_SIZE = 16;
+
+    static final byte ITEM = 0;
+
+    static final byte VARIABLE = 1;
+
+    static final byte LIST = 2;
+
+    static final int HAS_EQUALS = 1;
+
+    static final int SAME_LINE = 2;
+
+    static final int HAS_BRACKETS = 4;
+
+    static final ClausewitzValueType[] TYPES = ClausewitzValueType.values();
+
+    private final ByteBuffer buffer;
+
+    private final int strings;
+
+    private final SnapshotItem root;
+
+    private TreeSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a tree snapshot");
+        }
+
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported tree snapshot version " + buffer.getInt(4));
+        }
+
+        this.buffer = buffer;
+        this.strings = buffer.getInt(12);
+        this.root = new SnapshotItem(this, buffer.getInt(8));
+    }
+
+    public static TreeSnapshot open(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file is null");
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new TreeSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static TreeSnapshot of(ByteBuffer buffer) throws IOException {
+        if (buffer == null) {
+            throw new NullPointerException("buffer is null");
+        }
+
+        return new TreeSnapshot(buffer.slice());
+    }
+
+    public static void write(ClausewitzItem root, File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file is null");
+        }
+
+        File temp = File.createTempFile(file.getName(), null, file.getAbsoluteFile().getParentFile());
+
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp.toPath())) {
+                write(root, stream);
+            }
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    public static void write(ClausewitzItem root, OutputStream stream) throws IOException {
+        if (root == null) {
+            throw new NullPointerException("root is null");
+        }
+
+        Writer writer = new Writer();
+        int rootOffset = writer.writeItem(root);
+
+        if ((long) HEADER_SIZE + writer.nodes.size() + writer.strings.size() > Integer.MAX_VALUE) {
+            throw new IOException("Tree too big for a snapshot");
+        }
+
+        DataOutputStream data = new DataOutputStream(stream);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(rootOffset);
+        data.writeInt(HEADER_SIZE + writer.nodes.size());
+        writer.nodes.writeTo(data);
+        writer.strings.writeTo(data);
+        data.flush();
+    }
+
+    public static File sidecar(File file) {
+        return new File(file.getPath() + EXTENSION);
+    }
+
+    public SnapshotItem root() {
+        return this.root;
+    }
+
+    ByteBuffer buffer() {
+        return this.buffer;
+    }
+
+    String string(int ref) {
+        if (ref < 0) {
+            return null;
+        }
+
+        int position = this.strings + ref;
+        byte[] bytes = new byte[this.buffer.getInt(position)];
+        this.buffer.get(position + 4, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //Same order as the sorted entries, unsigned bytes
+    int compare(int ref, byte[] name) {
+        if (ref < 0) {
+            return name.length == 0 ? 0 : -1;
+        }
+
+        int position = this.strings + ref;
+        int length = this.buffer.getInt(position);
+        int min = Math.min(length, name.length);
+
+        for (int i = 0; i < min; i++) {
+            int c = Integer.compare(this.buffer.get(position + 4 + i) & 0xFF, name[i] & 0xFF);
+
+            if (c != 0) {
+                return c;
+            }
+        }
+
+        return Integer.compare(length, name.length);
+    }
+
+    private static final class Writer {
+
+        private final ByteArrayOutputStream nodes = new ByteArrayOutputStream(1 << 16);
+
+        private final DataOutputStream nodesStream = new DataOutputStream(this.nodes);
+
+        private final ByteArrayOutputStream strings = new ByteArrayOutputStream(1 << 16);
+
+        private final Map<String, Integer> stringRefs = new HashMap<>();
+
+        private final Map<String, byte[]> stringBytes = new HashMap<>();
+
+        private record Entry(byte kind, ClausewitzValueType type, String name, long value) {}
+
+        //Children are written before their parent, so the parent knows their offsets
+        private int writeItem(ClausewitzItem item) throws IOException {
+            List<ClausewitzObject> objects = item.getAllOrderedView();
+            Entry[] entries = new Entry[objects.size()];
+
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = switch (objects.get(i)) {
+                    case ClausewitzItem child -> new Entry(ITEM, null, child.getName(), writeItem(child));
+                    case ClausewitzList list -> new Entry(LIST, null, list.getName(), writeList(list));
+                    case ClausewitzVariable variable -> variable.getType() != null
+                                                        ? new Entry(VARIABLE, variable.getType(), variable.getName(), variable.getRaw())
+                                                        : new Entry(VARIABLE, null, variable.getName(), ref(variable.getValue()));
+                    default -> throw new IOException("Can't write " + objects.get(i).getClass().getSimpleName() + " in a snapshot");
+                };
+            }
+
+            Integer[] sorted = new Integer[entries.length];
+
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = i;
+            }
+
+            Arrays.sort(sorted, Comparator.<Integer>comparingInt(i -> entries[i].kind)
+                                          .thenComparing(i -> bytes(entries[i].name), Arrays::compareUnsigned)
+                                          .thenComparingInt(i -> i));
+
+            int offset = HEADER_SIZE + this.nodes.size();
+            this.nodesStream.writeInt(ref(item.getName()));
+            this.nodesStream.writeInt((item.isHasEquals() ? HAS_EQUALS : 0) | (item.isSameLine() ? SAME_LINE : 0));
+            this.nodesStream.writeInt(entries.length);
+
+            for (Entry entry : entries) {
+                this.nodesStream.writeByte(entry.kind);
+                this.nodesStream.writeByte(entry.type == null ? -1 : entry.type.ordinal());
+                this.nodesStream.writeShort(0);
+                this.nodesStream.writeInt(ref(entry.name));
+                this.nodesStream.writeLong(entry.value);
+            }
+
+            for (Integer i : sorted) {
+                this.nodesStream.writeInt(i);
+            }
+
+            return offset;
+        }
+
+        private int writeList(ClausewitzList list) throws IOException {
+            int offset = HEADER_SIZE + this.nodes.size();
+            this.nodesStream.writeInt((list.isSameLine() ? SAME_LINE : 0) | (list.isHasBrackets() ? HAS_BRACKETS : 0));
+            this.nodesStream.writeInt(list.getType() == null ? -1 : list.getType().ordinal());
+            this.nodesStream.writeInt(list.size());
+
+            for (int i = 0; i < list.size(); i++) {
+                if (list.getType() != null) {
+                    this.nodesStream.writeLong(list.getRaw(i));
+                } else {
+                    this.nodesStream.writeInt(ref(list.get(i)));
+                }
+            }
+
+            return offset;
+        }
+
+        private byte[] bytes(String s) {
+            return s == null ? new byte[0] : this.stringBytes.computeIfAbsent(s, k -> k.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private int ref(String s) throws IOException {
+            if (s == null) {
+                return -1;
+            }
+
+            Integer ref = this.stringRefs.get(s);
+
+            if (ref == null) {
+                ref = this.strings.size();
+                byte[] bytes = bytes(s);
+                DataOutputStream stream = new DataOutputStream(this.strings);
+                stream.writeInt(bytes.length);
+                stream.write(bytes);
+                this.stringRefs.put(s, ref);
+            }
+
+            return ref;
+        }
+    }
+}
@@ -1,27 +1,59 @@
 package fr.osallek.clausewitzparser;
 
+import fr.osallek.clausewitzparser.common.ClausewitzUtils;
 import fr.osallek.clausewitzparser.model.ClausewitzItem;
 import fr.osallek.clausewitzparser.model.ClausewitzList;
 import fr.osallek.clausewitzparser.model.ClausewitzObject;
+import fr.osallek.clausewitzparser.model.ClausewitzValueType;
 import fr.osallek.clausewitzparser.model.ClausewitzVariable;
+import fr.osallek.clausewitzparser.model.TokenTable;
+import fr.osallek.clausewitzparser.parser.BatchResult;
+import fr.osallek.clausewitzparser.parser.BinaryWriter;
+import fr.osallek.clausewitzparser.parser.ByteArray;
 import fr.osallek.clausewitzparser.parser.CharArray;
+import fr.osallek.clausewitzparser.parser.ClausewitzHandler;
+import fr.osallek.clausewitzparser.parser.ClausewitzListeners;
 import fr.osallek.clausewitzparser.parser.ClausewitzParser;
+import fr.osallek.clausewitzparser.parser.ClausewitzReader;
+import fr.osallek.clausewitzparser.parser.InflateIndex;
+import fr.osallek.clausewitzparser.parser.LuaParser;
+import fr.osallek.clausewitzparser.parser.ParseCache;
+import fr.osallek.clausewitzparser.parser.SnapshotItem;
+import fr.osallek.clausewitzparser.parser.TextKeyIndex;
+import fr.osallek.clausewitzparser.parser.TreeSnapshot;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.config.Configurator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 class ClausewitzParserTest {
 
@@ -79,6 +111,232 @@ class ClausewitzParserTest {
         }
     }
 
+    @Test
+    void testBinaryTokenTable() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            TokenTable tokenTable = new TokenTable((Map<Integer, String>) tokensStream.readObject());
+            ClausewitzItem root = ClausewitzParser.convertBinary(file, StandardCharsets.ISO_8859_1, 6, tokenTable);
+
+            Assertions.assertNotNull(root);
+            Assertions.assertEquals("\"PLC\"", root.getVarAsString("player"));
+            Assertions.assertEquals(9, root.getChild("mods_enabled_names").getNbChildren());
+            Assertions.assertEquals(ClausewitzValueType.INT, root.getVar("campaign_length").getType());
+            Assertions.assertEquals(22945, root.getVarAsInt("campaign_length"));
+            Assertions.assertEquals("57712296", root.getVarAsString("date"));
+            Assertions.assertEquals(ClausewitzUtils.stringToDate("57712296"), root.getVarAsDate("date"));
+        }
+    }
+
+    @Test
+    void testTypedListEquals() {
+        ClausewitzList typed = new ClausewitzList(null, "list", 0);
+        typed.add(1);
+        typed.add(2);
+        ClausewitzList strings = new ClausewitzList(null, "list", 0);
+        strings.addAll("1", "2");
+
+        Assertions.assertEquals(typed, strings);
+        Assertions.assertEquals(strings, typed);
+        Assertions.assertEquals(strings.hashCode(), typed.hashCode());
+        Assertions.assertEquals(ClausewitzValueType.INT, typed.getType());
+    }
+
+    @Test
+    void testMeltBinary() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            StringWriter writer = new StringWriter();
+            ClausewitzParser.meltBinary(file, StandardCharsets.ISO_8859_1, 6, new TokenTable((Map<Integer, String>) tokensStream.readObject()), writer);
+
+            String text = writer.toString();
+            Assertions.assertTrue(text.startsWith("date=57712296"));
+            Assertions.assertTrue(text.contains("player=\"PLC\""));
+            Assertions.assertTrue(text.contains("campaign_length=22945"));
+        }
+    }
+
+    @Test
+    void testBinaryStream() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream);
+             FileInputStream stream = new FileInputStream(file)) {
+            TokenTable tokenTable = new TokenTable((Map<Integer, String>) tokensStream.readObject());
+            ClausewitzItem expected = ClausewitzParser.convertBinary(file, StandardCharsets.ISO_8859_1, 6, tokenTable);
+            ClausewitzItem root = (ClausewitzItem) ClausewitzParser.convertBinary(ByteArray.binary(stream, StandardCharsets.ISO_8859_1), 6, tokenTable, null,
+                                                                                   new ClausewitzListeners());
+
+            Assertions.assertEquals(expected.getNbObjects(), root.getNbObjects());
+            Assertions.assertEquals(expected.getVarAsString("player"), root.getVarAsString("player"));
+            Assertions.assertEquals(expected.getVarAsInt("campaign_length"), root.getVarAsInt("campaign_length"));
+        }
+    }
+
+    @Test
+    void testStreamLarge(@TempDir Path directory) throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = directory.resolve("large.txt").toFile();
+        StringBuilder builder = new StringBuilder("date=1444.11.11\ncountries={\n\t\"TUR\"={\n");
+
+        for (int i = 0; i < 60_000; i++) { //Several times the buffer of a stream
+            builder.append("\t\titem_").append(i).append("={ value=").append(i).append(" name=\"name ").append(i).append("\" list={ 1 2 3 } }\n");
+        }
+
+        builder.append("\t}\n\t1234={ owner=TUR }\n}\nplayer=\"TUR\"\n");
+        byte[] text = builder.toString().getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(file.toPath(), text);
+        Assertions.assertTrue(text.length > 3 * 1024 * 1024);
+
+        Assertions.assertEquals(readAll(ClausewitzParser.reader(file, 0, StandardCharsets.ISO_8859_1)),
+                                readAll(ClausewitzReader.of(ByteArray.stream(new ByteArrayInputStream(text), StandardCharsets.ISO_8859_1), 0)));
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            TokenTable tokenTable = new TokenTable((Map<Integer, String>) tokensStream.readObject());
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            BinaryWriter binaryWriter = new BinaryWriter(outputStream, tokenTable, StandardCharsets.ISO_8859_1);
+            binaryWriter.writeHeader("EU4bin");
+            binaryWriter.write(ClausewitzParser.parse(file, 0, new ClausewitzListeners(), StandardCharsets.ISO_8859_1));
+            binaryWriter.flush();
+            byte[] binary = outputStream.toByteArray();
+
+            List<String> expected = readAll(ClausewitzReader.of(ByteArray.binary(ByteBuffer.wrap(binary), StandardCharsets.ISO_8859_1), 6, tokenTable));
+            Assertions.assertTrue(expected.contains("END_OBJECT 1 \"TUR\""));
+            Assertions.assertTrue(expected.contains("END_OBJECT 1 1234"));
+            Assertions.assertEquals(expected, readAll(ClausewitzReader.of(ByteArray.binary(new ByteArrayInputStream(binary), StandardCharsets.ISO_8859_1), 6,
+                                                                          tokenTable)));
+
+            ClausewitzItem root = (ClausewitzItem) ClausewitzParser.convertBinary(ByteArray.binary(new ByteArrayInputStream(binary),
+                                                                                                   StandardCharsets.ISO_8859_1), 6, tokenTable, null,
+                                                                                   new ClausewitzListeners());
+            Assertions.assertEquals(60_000, root.getChild("countries").getChild("\"TUR\"").getNbChildren());
+            Assertions.assertEquals("\"name 59999\"", root.getChild("countries").getChild("\"TUR\"").getChild("item_59999").getVarAsString("name"));
+            Assertions.assertEquals("TUR", root.getChild("countries").getChild("1234").getVarAsString("owner"));
+
+            ClausewitzObject player = ClausewitzParser.convertBinary(ByteArray.binary(new ByteArrayInputStream(binary), StandardCharsets.ISO_8859_1), 6,
+                                                                     tokenTable, List.of("player"), new ClausewitzListeners());
+            Assertions.assertEquals("\"TUR\"", ((ClausewitzVariable) player).getValue());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ClausewitzParser.readSingleObjectBinary(
+                    ByteArray.binary(new ByteArrayInputStream(binary), StandardCharsets.ISO_8859_1), 6, List.of("player"), tokenTable));
+        }
+    }
+
+    //Every token of the reader with its depth, name and value
+    private static List<String> readAll(ClausewitzReader reader) {
+        List<String> tokens = new ArrayList<>();
+        ClausewitzReader.Token token;
+
+        while ((token = reader.next()) != ClausewitzReader.Token.END_DOCUMENT) {
+            switch (token) {
+                case START_OBJECT, END_OBJECT -> tokens.add(token + " " + reader.depth() + " " + reader.name());
+                case VARIABLE -> tokens.add(token + " " + reader.depth() + " " + reader.name() + " " + reader.value());
+                case VALUE -> tokens.add(token + " " + reader.depth() + " " + reader.value());
+            }
+        }
+
+        return tokens;
+    }
+
+    @Test
+    void testBinaryWriter() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            TokenTable tokenTable = new TokenTable((Map<Integer, String>) tokensStream.readObject());
+            ClausewitzItem expected = ClausewitzParser.convertBinary(file, StandardCharsets.ISO_8859_1, 6, tokenTable);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            BinaryWriter binaryWriter = new BinaryWriter(outputStream, tokenTable, StandardCharsets.ISO_8859_1);
+            binaryWriter.writeHeader("EU4bin");
+            binaryWriter.write(expected);
+            binaryWriter.flush();
+
+            ClausewitzItem root = ClausewitzParser.convertBinary(ByteBuffer.wrap(outputStream.toByteArray()), StandardCharsets.ISO_8859_1, 6, tokenTable);
+
+            Assertions.assertEquals(file.length(), outputStream.size());
+            Assertions.assertEquals(expected.getNbObjects(), root.getNbObjects());
+            Assertions.assertEquals(expected.getVarAsString("player"), root.getVarAsString("player"));
+            Assertions.assertEquals(expected.getVarAsDate("date"), root.getVarAsDate("date"));
+        }
+    }
+
+    @Test
+    void testReadSingleObjectBinaryFile() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            TokenTable tokenTable = new TokenTable((Map<Integer, String>) tokensStream.readObject());
+
+            ClausewitzObject player = ClausewitzParser.readSingleObjectBinary(file, 6, "player", StandardCharsets.ISO_8859_1, tokenTable);
+            Assertions.assertInstanceOf(ClausewitzVariable.class, player);
+            Assertions.assertEquals("\"PLC\"", ((ClausewitzVariable) player).getValue());
+
+            ClausewitzObject mods = ClausewitzParser.readSingleObjectBinary(file, 6, "mods_enabled_names", StandardCharsets.ISO_8859_1, tokenTable);
+            Assertions.assertInstanceOf(ClausewitzItem.class, mods);
+            Assertions.assertEquals(9, ((ClausewitzItem) mods).getNbChildren());
+
+            ClausewitzObject first = ClausewitzParser.readSingleObjectBinary(file, 6, "first", StandardCharsets.ISO_8859_1, tokenTable); //Not top level
+            Assertions.assertEquals(1, ((ClausewitzVariable) first).getAsInt());
+        }
+    }
+
+    @Test
+    void testBinarySelectors() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            TokenTable tokenTable = new TokenTable((Map<Integer, String>) tokensStream.readObject());
+            ClausewitzItem root = ClausewitzParser.convertBinary(file, StandardCharsets.ISO_8859_1, 6, tokenTable,
+                                                                 List.of("date", "mods_enabled_names/*/name"));
+
+            Assertions.assertEquals(2, root.getNbObjects());
+            Assertions.assertEquals("57712296", root.getVarAsString("date"));
+            Assertions.assertEquals(9, root.getChild("mods_enabled_names").getNbChildren());
+            Assertions.assertEquals("\"Xorme - AI\"", root.getChild("mods_enabled_names").getChildren().getFirst().getVarAsString("name"));
+            Assertions.assertNull(root.getChild("mods_enabled_names").getChildren().getFirst().getVar("filename"));
+        }
+    }
+
+    @Test
+    void testTextSelectorsSameLine() {
+        File file = RESOURCE_FOLDER.resolve("area.txt").toFile();
+        ClausewitzItem expected = ClausewitzParser.parse(file, 0);
+        ClausewitzItem root = ClausewitzParser.parse(file, 0, List.of("*"));
+
+        Assertions.assertEquals(expected.getNbObjects(), root.getNbObjects());
+
+        for (ClausewitzList list : expected.getLists()) {
+            Assertions.assertEquals(list.isSameLine(), root.getList(list.getName()).isSameLine(), list.getName());
+        }
+    }
+
+    @Test
+    void testBinaryParallel() throws IOException, ClassNotFoundException {
+        File tokens = RESOURCE_FOLDER.resolve("tokens.txt").toFile();
+        File file = RESOURCE_FOLDER.resolve("binary_meta").toFile();
+
+        try (FileInputStream tokensFileStream = new FileInputStream(tokens); ObjectInputStream tokensStream = new ObjectInputStream(tokensFileStream)) {
+            Map<Integer, String> tokensMap = (Map<Integer, String>) tokensStream.readObject();
+            ClausewitzItem expected = ClausewitzParser.convertBinary(new CharArray(file, StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1, 6,
+                                                                     tokensMap);
+            ClausewitzItem root = ClausewitzParser.convertBinaryParallel(new CharArray(file, StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1, 6,
+                                                                         tokensMap);
+
+            Assertions.assertNotNull(root);
+            Assertions.assertEquals(expected.getNbObjects(), root.getNbObjects());
+            Assertions.assertEquals(expected.getVarAsString("checksum"), root.getVarAsString("checksum"));
+            Assertions.assertEquals(9, root.getChild("mods_enabled_names").getNbChildren());
+        }
+    }
+
     @Test
     void testParseFlatSave() {
         Configurator.setLevel(ClausewitzParser.class.getCanonicalName(), Level.DEBUG);
@@ -115,6 +373,135 @@ class ClausewitzParserTest {
         Assertions.assertEquals(LocalDate.of(1444, 11, 11), grandChild.getVarAsDate("last_focus_move"));
     }
 
+    @Test
+    void testParseAsync() throws ExecutionException, InterruptedException {
+        File file = RESOURCE_FOLDER.resolve("area.txt").toFile();
+        CompletableFuture<ClausewitzItem> future = ClausewitzParser.parseAsync(file, 0);
+
+        Assertions.assertEquals(ClausewitzParser.parse(file, 0).getNbObjects(), future.get().getNbObjects());
+
+        future = ClausewitzParser.parseAsync(file, 0, new ClausewitzListeners(), null, Runnable::run);
+        Assertions.assertTrue(future.isDone());
+        Assertions.assertFalse(future.cancel(true));
+    }
+
+    @Test
+    void testParseCache() {
+        File file = RESOURCE_FOLDER.resolve("area.txt").toFile();
+        ParseCache cache = new ParseCache(1 << 24);
+        ClausewitzItem first = cache.parse(file, 0);
+        ClausewitzItem second = cache.parse(file, 0);
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(ClausewitzParser.parse(file, 0).getNbObjects(), second.getNbObjects());
+        Assertions.assertEquals(13, second.getList("western_mediterrenean_area").size());
+    }
+
+    @Test
+    void testParseCacheDirectory(@TempDir Path directory) throws IOException {
+        Path cacheDirectory = directory.resolve("cache");
+        File file = directory.resolve("area.txt").toFile();
+        Files.copy(RESOURCE_FOLDER.resolve("area.txt"), file.toPath());
+        long lastModified = file.lastModified() / 1000 * 1000 - 100_000;
+        Assertions.assertTrue(file.setLastModified(lastModified));
+
+        Assertions.assertEquals(13, new ParseCache(cacheDirectory, 1 << 24).parse(file, 0).getList("western_mediterrenean_area").size());
+        Assertions.assertEquals(1, cacheDirectory.toFile().list().length);
+
+        //Same length and date, a new cache uses the tree of the directory without reading the file
+        String content = Files.readString(file.toPath(), StandardCharsets.ISO_8859_1);
+        Files.writeString(file.toPath(), content.replace("western_mediterrenean_area", "western_mediterrenean_areb"), StandardCharsets.ISO_8859_1);
+        Assertions.assertTrue(file.setLastModified(lastModified));
+        Assertions.assertNotNull(new ParseCache(cacheDirectory, 1 << 24).parse(file, 0).getList("western_mediterrenean_area"));
+
+        //Same length but another content
+        Assertions.assertTrue(file.setLastModified(lastModified + 10_000));
+        ClausewitzItem changed = new ParseCache(cacheDirectory, 1 << 24).parse(file, 0);
+        Assertions.assertNull(changed.getList("western_mediterrenean_area"));
+        Assertions.assertEquals(13, changed.getList("western_mediterrenean_areb").size());
+
+        //Another length
+        Files.writeString(file.toPath(), content + "\nnew_area = {\n\t1 2\n}\n", StandardCharsets.ISO_8859_1);
+        Assertions.assertTrue(file.setLastModified(lastModified + 20_000));
+        ParseCache cache = new ParseCache(cacheDirectory, 1 << 24);
+        Assertions.assertEquals(2, cache.parse(file, 0).getList("new_area").size());
+
+        //Touched, the hash is the same so the entry is kept with the new date
+        Assertions.assertTrue(file.setLastModified(lastModified + 30_000));
+        Assertions.assertEquals(2, cache.parse(file, 0).getList("new_area").size());
+        Files.writeString(file.toPath(), content + "\nold_area = {\n\t1 2\n}\n", StandardCharsets.ISO_8859_1);
+        Assertions.assertTrue(file.setLastModified(lastModified + 30_000));
+        Assertions.assertEquals(2, cache.parse(file, 0).getList("new_area").size());
+        Assertions.assertEquals(2, new ParseCache(cacheDirectory, 1 << 24).parse(file, 0).getList("new_area").size());
+        Assertions.assertEquals(1, cacheDirectory.toFile().list().length);
+
+        File lua = directory.resolve("defines.lua").toFile();
+        Files.copy(RESOURCE_FOLDER.resolve("defines.lua"), lua.toPath());
+        Map<String, Object> defines = cache.parseLua(lua);
+        Assertions.assertEquals(LuaParser.parse(lua), defines);
+        Assertions.assertEquals(defines, new ParseCache(cacheDirectory, 1 << 24).parseLua(lua));
+        Assertions.assertEquals(2, cacheDirectory.toFile().list().length);
+    }
+
+    @Test
+    void testAllOrdered() {
+        ClausewitzItem item = new ClausewitzItem();
+        item.addChild("a");
+        item.addVariable("b", "1");
+        item.addList("c", false, "2");
+        item.addVariable("d", "3", 1, true);
+        item.removeChild("a");
+
+        Assertions.assertEquals(List.of("d", "b", "c"), item.getAllOrdered().stream().map(ClausewitzObject::getName).toList());
+        Assertions.assertEquals(3, item.getMaxOrder());
+        Assertions.assertSame(item.getVar("b"), item.getAllOrdered("b").getFirst());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> item.getAllOrderedView().clear());
+    }
+
+    @Test
+    void testInsertBefore() {
+        ClausewitzItem item = new ClausewitzItem();
+
+        for (int i = 0; i < 200; i++) {
+            item.addChild("a");
+        }
+
+        for (int i = 0; i < 100; i++) {
+            item.addVariable("b", Integer.toString(i), 0, true);
+        }
+
+        Assertions.assertSame(item.getVar("b", 99), item.getAllOrdered().getFirst());
+        Assertions.assertEquals(0, item.getVar("b", 99).getOrder());
+        Assertions.assertEquals(100, item.getChild("a").getOrder());
+        Assertions.assertEquals(299, item.getMaxOrder());
+        Assertions.assertTrue(item.removeByOrder(100));
+        Assertions.assertEquals(101, item.getChild("a").getOrder());
+        Assertions.assertEquals(299, item.getNbObjects());
+    }
+
+    @Test
+    void testTreeSnapshot() throws IOException {
+        ClausewitzItem root = ClausewitzParser.parse(RESOURCE_FOLDER.resolve("area.txt").toFile(), 0);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        TreeSnapshot.write(root, stream);
+        SnapshotItem snapshot = TreeSnapshot.of(ByteBuffer.wrap(stream.toByteArray())).root();
+
+        Assertions.assertEquals(root.getNbObjects(), snapshot.getNbObjects());
+        Assertions.assertEquals(root.getList("western_mediterrenean_area").getValues(), snapshot.getList("western_mediterrenean_area").getValues());
+        Assertions.assertNull(snapshot.getList("unknown_area"));
+    }
+
+    @Test
+    void testParseAllDirectory() {
+        BatchResult result = ClausewitzParser.parseAll(RESOURCE_FOLDER, "*.txt", 0, null, ForkJoinPool.commonPool(), 1 << 16);
+
+        Assertions.assertFalse(result.hasErrors());
+        Assertions.assertTrue(result.items().containsKey(RESOURCE_FOLDER.resolve("region.txt")));
+        Assertions.assertFalse(result.items().containsKey(RESOURCE_FOLDER.resolve("defines.lua")));
+        Assertions.assertEquals(ClausewitzParser.parse(RESOURCE_FOLDER.resolve("area.txt").toFile(), 0).getNbObjects(),
+                                result.items().get(RESOURCE_FOLDER.resolve("area.txt")).getNbObjects());
+    }
+
     @Test
     void testParseCompressedSave() throws IOException {
         Configurator.setLevel(ClausewitzParser.class.getCanonicalName(), Level.DEBUG);
@@ -148,6 +535,87 @@ class ClausewitzParserTest {
         }
     }
 
+    @Test
+    void testParseAllCompressedSave() throws IOException {
+        try (ZipFile zipFile = new ZipFile(RESOURCE_FOLDER.resolve("1_30_4_compressed.eu4").toFile())) {
+            Map<String, ClausewitzItem> items = ClausewitzParser.parseAll(zipFile, 1);
+
+            Assertions.assertTrue(items.containsKey("meta"));
+            Assertions.assertTrue(items.containsKey("gamestate"));
+            Assertions.assertEquals("\"7c8a83d3b91c2349764d14fb48cb1e23\"", items.get("gamestate").getVarAsString("checksum"));
+            Assertions.assertEquals(ClausewitzParser.parse(zipFile, "meta", 1).getNbObjects(), items.get("meta").getNbObjects());
+        }
+    }
+
+    @Test
+    void testInflateIndexCompressedSave() throws IOException {
+        try (ZipFile zipFile = new ZipFile(RESOURCE_FOLDER.resolve("1_30_4_compressed.eu4").toFile())) {
+            InflateIndex checkpoints = InflateIndex.build(zipFile, "gamestate", 1 << 16);
+            TextKeyIndex index = ClausewitzParser.index(zipFile, "gamestate", 1, null);
+
+            Assertions.assertTrue(checkpoints.isValidFor(zipFile));
+            Assertions.assertTrue(checkpoints.nbCheckpoints() > 0);
+
+            ClausewitzItem expected = ClausewitzParser.parse(zipFile, "gamestate", 1).getChild("countries");
+            ClausewitzItem countries = (ClausewitzItem) ClausewitzParser.readSingleObject(zipFile, "countries", index, checkpoints);
+
+            Assertions.assertNotNull(countries);
+            Assertions.assertEquals(expected.getNbObjects(), countries.getNbObjects());
+            Assertions.assertEquals("\"magisterium\"", countries.getChild("A85").getVarAsString("government_name"));
+        }
+    }
+
+    @Test
+    void testInflateIndexSyncFlush(@TempDir Path directory) throws IOException {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; builder.length() < 2_000_000; i++) {
+            builder.append("key_").append(i).append(" = {\n\tvalue = ").append(i * 7919 % 1000).append("\n\tname = \"name ").append(i).append("\"\n}\n");
+        }
+
+        byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+        File file = directory.resolve("sync.zip").toFile();
+
+        //Sync flushes add empty stored blocks, which are aligned on bytes whatever the position of the checkpoint before them
+        try (ZipOutputStream stream = new ZipOutputStream(new FileOutputStream(file)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                for (int i = off; i < off + len; i += 50_000) {
+                    super.write(b, i, Math.min(50_000, off + len - i));
+                    int nb;
+
+                    while ((nb = this.def.deflate(this.buf, 0, this.buf.length, Deflater.SYNC_FLUSH)) > 0) {
+                        this.out.write(this.buf, 0, nb);
+                    }
+                }
+            }
+        }) {
+            stream.putNextEntry(new ZipEntry("gamestate"));
+            stream.write(bytes, 0, bytes.length);
+            stream.closeEntry();
+        }
+
+        try (ZipFile zipFile = new ZipFile(file)) {
+            InflateIndex checkpoints = InflateIndex.build(zipFile, "gamestate", 1 << 14);
+            Random random = new Random(1);
+
+            Assertions.assertTrue(checkpoints.nbCheckpoints() > 20, "checkpoints " + checkpoints.nbCheckpoints());
+
+            for (int i = 0; i < 100; i++) {
+                int offset = random.nextInt(bytes.length);
+
+                try (InputStream stream = checkpoints.open(zipFile, offset)) {
+                    Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + 100_000)), stream.readNBytes(100_000));
+                }
+            }
+
+            TextKeyIndex index = ClausewitzParser.index(zipFile, "gamestate", 0, null);
+            ClausewitzItem item = (ClausewitzItem) ClausewitzParser.readSingleObject(zipFile, "key_20000", index, checkpoints);
+
+            Assertions.assertEquals("\"name 20000\"", item.getVarAsString("name"));
+        }
+    }
+
     @Test
     void testParseCompressedCk3Save() throws IOException {
         Configurator.setLevel(ClausewitzParser.class.getCanonicalName(), Level.DEBUG);
@@ -274,6 +742,100 @@ class ClausewitzParserTest {
         Assertions.assertFalse(list.contains("00.00.01"));
     }
 
+    @Test
+    void testStreamRegionFile() {
+        Map<String, Integer> nbValues = new HashMap<>();
+        List<String> path = new ArrayList<>();
+
+        ClausewitzParser.stream(RESOURCE_FOLDER.resolve("region.txt").toFile(), 0, new ClausewitzHandler() {
+            @Override
+            public void startObject(String name, boolean hasEquals) {
+                path.add(name);
+            }
+
+            @Override
+            public void endObject(String name) {
+                path.removeLast();
+            }
+
+            @Override
+            public void value(String value) {
+                nbValues.merge(String.join(".", path), 1, Integer::sum);
+            }
+        });
+
+        Assertions.assertTrue(path.isEmpty());
+        Assertions.assertEquals(17, nbValues.get("france_region.areas"));
+        Assertions.assertEquals(2, nbValues.get("niger_region.monsoon"));
+    }
+
+    @Test
+    void testReaderStaticModifiersFile() {
+        ClausewitzReader reader = ClausewitzParser.reader(RESOURCE_FOLDER.resolve("static_modifiers.txt").toFile(), 0);
+        int nbObjects = 0;
+        String picture = null;
+
+        while (reader.next() != ClausewitzReader.Token.END_DOCUMENT) {
+            if (reader.currentToken() == ClausewitzReader.Token.START_OBJECT) {
+                nbObjects++;
+
+                if (!"tropical".equals(reader.name())) {
+                    reader.skipValue();
+                    Assertions.assertEquals(ClausewitzReader.Token.END_OBJECT, reader.currentToken());
+                    Assertions.assertEquals(0, reader.depth());
+                }
+            } else if (reader.currentToken() == ClausewitzReader.Token.VARIABLE && "picture".equals(reader.name()) && reader.depth() == 1) {
+                picture = reader.value();
+            }
+        }
+
+        Assertions.assertEquals(257, nbObjects);
+        Assertions.assertEquals("\"climate_tropical\"", picture);
+    }
+
+    @Test
+    void testParseParallelAreaFile() {
+        ClausewitzItem root = ClausewitzParser.parseParallel(RESOURCE_FOLDER.resolve("area.txt").toFile(), 0);
+        ClausewitzItem expected = ClausewitzParser.parse(RESOURCE_FOLDER.resolve("area.txt").toFile(), 0);
+
+        Assertions.assertNotNull(root);
+        Assertions.assertEquals(expected.getNbObjects(), root.getNbObjects());
+
+        ClausewitzList list = root.getList("western_mediterrenean_area");
+        Assertions.assertNotNull(list);
+        Assertions.assertEquals(13, list.size());
+        Assertions.assertEquals(expected.getList("western_mediterrenean_area").getOrder(), list.getOrder());
+    }
+
+    @Test
+    void testIndexAreaFile() {
+        File file = RESOURCE_FOLDER.resolve("area.txt").toFile();
+        TextKeyIndex index = ClausewitzParser.index(file, 0);
+
+        Assertions.assertTrue(index.contains("western_mediterrenean_area"));
+        Assertions.assertTrue(index.isValidFor(file));
+
+        ClausewitzObject object = ClausewitzParser.readSingleObject(file, "western_mediterrenean_area", index);
+        Assertions.assertInstanceOf(ClausewitzList.class, object);
+        Assertions.assertEquals(13, ((ClausewitzList) object).size());
+        Assertions.assertNull(ClausewitzParser.readSingleObject(file, "western_mediterrenean", index));
+
+        TextKeyIndex regionIndex = ClausewitzParser.index(RESOURCE_FOLDER.resolve("region.txt").toFile(), 0);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ClausewitzParser.readSingleObject(file, "western_mediterrenean_area", regionIndex));
+    }
+
+    @Test
+    void testNameListeners() {
+        List<String> names = new ArrayList<>();
+        List<String> topLevel = new ArrayList<>();
+        ClausewitzListeners listeners = new ClausewitzListeners().on("areas", names::add).on("areas", 1, topLevel::add);
+        ClausewitzItem root = ClausewitzParser.parse(RESOURCE_FOLDER.resolve("region.txt").toFile(), 0, listeners);
+
+        Assertions.assertNotNull(root);
+        Assertions.assertFalse(names.isEmpty());
+        Assertions.assertTrue(topLevel.isEmpty());
+    }
+
     @Test
     void testParseStaticModifiersFile() {
         Configurator.setLevel(ClausewitzParser.class.getCanonicalName(), Level.DEBUG);